@@ -27,6 +27,8 @@ package games.negative.alumina;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import games.negative.alumina.command.AsyncCommandExecutor;
+import games.negative.alumina.command.AsyncTabCompleter;
 import games.negative.alumina.dependency.DependencyLoader;
 import games.negative.alumina.dependency.MavenDependency;
 import games.negative.alumina.dependency.MavenRepository;
@@ -34,6 +36,8 @@ import games.negative.alumina.event.Events;
 import games.negative.alumina.logger.Logs;
 import games.negative.alumina.menu.config.YamlItemStack;
 import games.negative.alumina.menu.listener.MenuListener;
+import games.negative.alumina.message.MessageListener;
+import games.negative.alumina.message.MessagePipeline;
 import games.negative.alumina.util.FileLoader;
 import org.bukkit.Bukkit;
 import org.bukkit.Server;
@@ -86,6 +90,8 @@ public abstract class AluminaPlugin extends JavaPlugin {
 
         commandMap.register(getName(), command);
 
+        if (command.isAsyncTabComplete()) AsyncTabCompleter.register(command);
+
         List<games.negative.alumina.command.Command> sub = getRecursiveSubCommand(command);
         if (sub.isEmpty()) return;
 
@@ -100,6 +106,8 @@ public abstract class AluminaPlugin extends JavaPlugin {
                 }
 
                 commandMap.register(shortcut, getName(), cmd);
+
+                if (cmd.isAsyncTabComplete()) AsyncTabCompleter.register(cmd, shortcut);
             }
         }
     }
@@ -253,6 +261,8 @@ public abstract class AluminaPlugin extends JavaPlugin {
     @Override
     public void onEnable() {
         new MenuListener();
+        new MessageListener();
+        MessagePipeline.start();
 
         enable();
     }
@@ -260,6 +270,9 @@ public abstract class AluminaPlugin extends JavaPlugin {
     @Override
     public void onDisable() {
         disable();
+
+        MessagePipeline.shutdown();
+        AsyncCommandExecutor.shutdown();
     }
 
     public static AluminaPlugin getAluminaInstance() {
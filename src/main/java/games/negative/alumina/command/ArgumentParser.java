@@ -0,0 +1,69 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.alumina.command;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Functional Interface for parsing a single argument of a command into a typed value.
+ *
+ * Parsers should be stateless, so a single instance can be shared by every command and invocation.
+ * See {@link Arguments} for the built-in parsers.
+ *
+ * @param <T> The type of the parsed value.
+ */
+@FunctionalInterface
+public interface ArgumentParser<T> {
+
+    /**
+     * Parses the given argument.
+     *
+     * @param sender The sender of the command.
+     * @param input  The argument to parse.
+     * @return The parsed value.
+     * @throws ArgumentException if the argument is not valid.
+     */
+    @NotNull
+    T parse(@NotNull CommandSender sender, @NotNull String input) throws ArgumentException;
+
+    /**
+     * Returns the tab completions for the given partial argument.
+     *
+     * @param sender The sender of the tab completion.
+     * @param input  The partial argument.
+     * @return The tab completions.
+     */
+    @NotNull
+    default List<String> complete(@NotNull CommandSender sender, @NotNull String input) {
+        return Collections.emptyList();
+    }
+
+}
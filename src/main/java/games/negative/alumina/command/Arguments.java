@@ -0,0 +1,288 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.alumina.command;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import games.negative.alumina.util.NumberUtil;
+import games.negative.alumina.util.TabCompleteUtil;
+import games.negative.alumina.util.TimeUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.util.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The built-in {@link ArgumentParser}s for the argument schema of a command.
+ * <p>
+ * All parsers are stateless and shared, so they can be used in any number of commands.
+ */
+public final class Arguments {
+
+    private static final ArgumentParser<String> STRING = (sender, input) -> input;
+
+    private static final ArgumentParser<Integer> INTEGER = new IntegerParser(Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+    private static final ArgumentParser<Duration> DURATION = new DurationParser();
+
+    private static final ArgumentParser<Player> PLAYER = new PlayerParser();
+
+    private static final ArgumentParser<UUID> UNIQUE_ID = new UniqueIdParser();
+
+    private static final Map<Class<?>, ArgumentParser<?>> ENUMS = Maps.newConcurrentMap();
+
+    private Arguments() {
+    }
+
+    /**
+     * Returns the parser which accepts any argument as-is.
+     *
+     * @return The string parser.
+     */
+    @NotNull
+    public static ArgumentParser<String> string() {
+        return STRING;
+    }
+
+    /**
+     * Returns the parser for whole numbers.
+     *
+     * @return The integer parser.
+     */
+    @NotNull
+    public static ArgumentParser<Integer> integer() {
+        return INTEGER;
+    }
+
+    /**
+     * Returns a parser for whole numbers within the given range, inclusive.
+     *
+     * @param minimum The smallest allowed number.
+     * @param maximum The largest allowed number.
+     * @return The integer parser.
+     * @throws IllegalArgumentException if the minimum is larger than the maximum.
+     */
+    @NotNull
+    public static ArgumentParser<Integer> integer(int minimum, int maximum) {
+        Preconditions.checkArgument(minimum <= maximum, "Minimum cannot be larger than the maximum.");
+
+        return new IntegerParser(minimum, maximum);
+    }
+
+    /**
+     * Returns the parser for durations such as {@code 1h30m}, see {@link TimeUtil#parse(String)}.
+     *
+     * @return The duration parser.
+     */
+    @NotNull
+    public static ArgumentParser<Duration> duration() {
+        return DURATION;
+    }
+
+    /**
+     * Returns the parser for online players which are visible to the sender.
+     *
+     * @return The player parser.
+     */
+    @NotNull
+    public static ArgumentParser<Player> player() {
+        return PLAYER;
+    }
+
+    /**
+     * Returns the parser for unique ids.
+     *
+     * @return The UUID parser.
+     */
+    @NotNull
+    public static ArgumentParser<UUID> uuid() {
+        return UNIQUE_ID;
+    }
+
+    /**
+     * Returns the parser for the constants of the given enum, ignoring case.
+     *
+     * @param type The enum class.
+     * @param <E>  The enum type.
+     * @return The enum parser.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<E>> ArgumentParser<E> enumeration(@NotNull Class<E> type) {
+        Preconditions.checkNotNull(type, "Type cannot be null.");
+
+        return (ArgumentParser<E>) ENUMS.computeIfAbsent(type, key -> new EnumParser<>(type));
+    }
+
+    private record IntegerParser(int minimum, int maximum) implements ArgumentParser<Integer> {
+
+        /**
+         * The largest range of which every number is suggested.
+         */
+        private static final int SUGGESTED_RANGE = 10;
+
+        @NotNull
+        @Override
+        public Integer parse(@NotNull CommandSender sender, @NotNull String input) {
+            Integer value = NumberUtil.getInteger(input);
+            if (value == null) throw new ArgumentException("'" + input + "' is not a whole number.");
+
+            if (value < minimum || value > maximum)
+                throw new ArgumentException("The number must be between " + minimum + " and " + maximum + ".");
+
+            return value;
+        }
+
+        @NotNull
+        @Override
+        public List<String> complete(@NotNull CommandSender sender, @NotNull String input) {
+            if ((long) maximum - minimum >= SUGGESTED_RANGE) return Collections.emptyList();
+
+            List<String> completions = Lists.newArrayList();
+            for (int i = minimum; i <= maximum; i++) {
+                String value = String.valueOf(i);
+                if (value.startsWith(input)) completions.add(value);
+            }
+            return completions;
+        }
+    }
+
+    private static final class DurationParser implements ArgumentParser<Duration> {
+
+        private static final String[] UNITS = {"s", "m", "h", "d", "w"};
+
+        @NotNull
+        @Override
+        public Duration parse(@NotNull CommandSender sender, @NotNull String input) {
+            // TimeUtil ignores trailing digits, so require the argument to end with a unit
+            if (input.isEmpty() || !Character.isLetter(input.charAt(input.length() - 1)))
+                throw new ArgumentException("'" + input + "' is not a valid duration, such as 1h30m.");
+
+            try {
+                return TimeUtil.parse(input);
+            } catch (IllegalArgumentException e) {
+                throw new ArgumentException("'" + input + "' is not a valid duration, such as 1h30m.");
+            }
+        }
+
+        @NotNull
+        @Override
+        public List<String> complete(@NotNull CommandSender sender, @NotNull String input) {
+            if (input.isEmpty() || !Character.isDigit(input.charAt(input.length() - 1))) return Collections.emptyList();
+
+            List<String> completions = Lists.newArrayListWithCapacity(UNITS.length);
+            for (String unit : UNITS) {
+                completions.add(input + unit);
+            }
+            return completions;
+        }
+    }
+
+    private static final class PlayerParser implements ArgumentParser<Player> {
+
+        @NotNull
+        @Override
+        public Player parse(@NotNull CommandSender sender, @NotNull String input) {
+            Player player = Bukkit.getPlayerExact(input);
+            if (player == null || (sender instanceof Player viewer && !viewer.canSee(player)))
+                throw new ArgumentException("The player '" + input + "' is not online.");
+
+            return player;
+        }
+
+        @NotNull
+        @Override
+        public List<String> complete(@NotNull CommandSender sender, @NotNull String input) {
+            if (sender instanceof Player viewer) return TabCompleteUtil.getOnlinePlayersMatching(viewer, input);
+
+            List<String> completions = Lists.newArrayList();
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (StringUtil.startsWithIgnoreCase(player.getName(), input)) completions.add(player.getName());
+            }
+            return completions;
+        }
+    }
+
+    private static final class UniqueIdParser implements ArgumentParser<UUID> {
+
+        @NotNull
+        @Override
+        public UUID parse(@NotNull CommandSender sender, @NotNull String input) {
+            try {
+                return UUID.fromString(input);
+            } catch (IllegalArgumentException e) {
+                throw new ArgumentException("'" + input + "' is not a valid UUID.");
+            }
+        }
+    }
+
+    private static final class EnumParser<E extends Enum<E>> implements ArgumentParser<E> {
+
+        private final Map<String, E> constants;
+        private final List<String> names;
+
+        private EnumParser(@NotNull Class<E> type) {
+            this.constants = Maps.newTreeMap(String.CASE_INSENSITIVE_ORDER);
+            this.names = Lists.newArrayList();
+
+            for (E constant : type.getEnumConstants()) {
+                String name = constant.name().toLowerCase(Locale.ROOT);
+                constants.put(name, constant);
+                names.add(name);
+            }
+        }
+
+        @NotNull
+        @Override
+        public E parse(@NotNull CommandSender sender, @NotNull String input) {
+            E constant = constants.get(input);
+            if (constant == null)
+                throw new ArgumentException("'" + input + "' is not one of: " + String.join(", ", names) + ".");
+
+            return constant;
+        }
+
+        @NotNull
+        @Override
+        public List<String> complete(@NotNull CommandSender sender, @NotNull String input) {
+            List<String> completions = Lists.newArrayList();
+            for (String name : names) {
+                if (StringUtil.startsWithIgnoreCase(name, input)) completions.add(name);
+            }
+            return completions;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.alumina.command;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The AsyncCommandExecutor class holds the executor that commands declared with
+ * {@link CommandProperties#async()} are executed on.
+ * <p>
+ * On Java 21 and newer every command runs on its own virtual thread, otherwise a cached pool of
+ * daemon threads is used. Use {@link Context#sync(Runnable)} to get back to the main thread for Bukkit API calls.
+ * The default executor is shut down when Alumina is disabled, and created again when the next command runs.
+ */
+public class AsyncCommandExecutor {
+
+    private static final Object LOCK = new Object();
+
+    /*
+     * Created on first use and again after a shutdown, guarded by the lock.
+     */
+    private static ExecutorService defaultExecutor;
+
+    /*
+     * Executor set with setExecutor, or null to execute on the default executor.
+     */
+    private static volatile Executor executor;
+
+    /**
+     * Sets the executor async commands are executed on.
+     * @param executor The executor to execute on.
+     */
+    public static void setExecutor(@NotNull Executor executor) {
+        Preconditions.checkNotNull(executor, "Executor cannot be null.");
+
+        AsyncCommandExecutor.executor = executor;
+    }
+
+    /**
+     * Executes the given task on the async command executor.
+     * @param task The task to execute.
+     */
+    static void execute(@NotNull Runnable task) {
+        Executor executor = AsyncCommandExecutor.executor;
+        if (executor == null) {
+            synchronized (LOCK) {
+                if (defaultExecutor == null) defaultExecutor = createDefaultExecutor();
+                executor = defaultExecutor;
+            }
+        }
+
+        executor.execute(task);
+    }
+
+    /**
+     * Shuts down the default executor, commands which are already running are allowed to finish.
+     * <p>
+     * This is called when Alumina is disabled, executors set with {@link #setExecutor(Executor)} are not shut down.
+     */
+    public static void shutdown() {
+        ExecutorService executor;
+        synchronized (LOCK) {
+            executor = defaultExecutor;
+            defaultExecutor = null;
+        }
+
+        if (executor != null) executor.shutdown();
+    }
+
+    @NotNull
+    private static ExecutorService createDefaultExecutor() {
+        try {
+            // Virtual threads only exist on Java 21 and newer, while Alumina targets Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                    .setNameFormat("alumina-command-%d")
+                    .setDaemon(true)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.alumina.command;
+
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import games.negative.alumina.event.Events;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The AsyncTabCompleter class computes the tab completions of commands declared with
+ * {@link CommandProperties#asyncTabComplete()} off the main thread using Paper's {@link AsyncTabCompleteEvent}.
+ * Commands which are not registered here, and completions which fail, fall back to the regular
+ * tab completion on the main thread.
+ * <p>
+ * If the command has a {@link CommandProperties#tabCompleteCache()}, the completions are cached per player
+ * and input buffer for that long.
+ */
+public class AsyncTabCompleter {
+
+    private static final Map<String, Registration> registrations = Maps.newConcurrentMap();
+
+    static {
+        // Complete registered commands off the main thread
+        Events.listen(AsyncTabCompleteEvent.class, AsyncTabCompleter::complete);
+
+        // Remove the cached completions when the player quits the server
+        Events.listen(PlayerQuitEvent.class, event -> invalidate(event.getPlayer().getUniqueId()));
+    }
+
+    /**
+     * Registers a command for asynchronous tab completion under its name and aliases.
+     *
+     * @param command The command to register.
+     */
+    public static void register(@NotNull Command command) {
+        Preconditions.checkNotNull(command, "Command cannot be null.");
+
+        List<String> labels = Lists.newArrayList(command.getName());
+        labels.addAll(command.getAliases());
+
+        register(command, labels.toArray(String[]::new));
+    }
+
+    /**
+     * Registers a command for asynchronous tab completion under the given labels.
+     *
+     * @param command The command to register.
+     * @param labels  The labels the command is executed with.
+     */
+    public static void register(@NotNull Command command, @NotNull String... labels) {
+        Preconditions.checkNotNull(command, "Command cannot be null.");
+        Preconditions.checkNotNull(labels, "Labels cannot be null.");
+
+        Duration ttl = command.getTabCompleteCache();
+        Cache<Key, List<String>> cache = (ttl == null || ttl.isNegative() || ttl.isZero() ? null : CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(1000)
+                .build());
+
+        Registration registration = new Registration(command, cache);
+        for (String label : labels) {
+            registrations.put(label.toLowerCase(Locale.ROOT), registration);
+        }
+    }
+
+    /**
+     * Unregisters the command with the given label from asynchronous tab completion.
+     *
+     * @param label The label of the command.
+     */
+    public static void unregister(@NotNull String label) {
+        Preconditions.checkNotNull(label, "Label cannot be null.");
+
+        registrations.remove(label.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Invalidates all cached completions of the given player.
+     *
+     * @param uuid The UUID of the player.
+     */
+    public static void invalidate(@NotNull UUID uuid) {
+        Preconditions.checkNotNull(uuid, "UUID cannot be null.");
+
+        for (Registration registration : registrations.values()) {
+            if (registration.cache() == null) continue;
+
+            registration.cache().asMap().keySet().removeIf(key -> key.uuid().equals(uuid));
+        }
+    }
+
+    /**
+     * Invalidates all cached completions.
+     */
+    public static void invalidateAll() {
+        for (Registration registration : registrations.values()) {
+            if (registration.cache() == null) continue;
+
+            registration.cache().invalidateAll();
+        }
+    }
+
+    private static void complete(@NotNull AsyncTabCompleteEvent event) {
+        if (event.isHandled() || !event.isCommand()) return;
+
+        String buffer = event.getBuffer();
+        int start = (buffer.startsWith("/") ? 1 : 0);
+        int space = buffer.indexOf(' ', start);
+
+        // Command names themselves are completed by the server
+        if (space == -1) return;
+
+        String label = buffer.substring(start, space);
+        int namespace = label.indexOf(':');
+        if (namespace != -1) label = label.substring(namespace + 1);
+
+        Registration registration = registrations.get(label.toLowerCase(Locale.ROOT));
+        if (registration == null) return;
+
+        Command command = registration.command();
+        CommandSender sender = event.getSender();
+        if (!command.testPermissionSilent(sender)) return;
+
+        Cache<Key, List<String>> cache = registration.cache();
+        Key key = (cache != null && sender instanceof Player player ? new Key(player.getUniqueId(), buffer) : null);
+        if (key != null) {
+            List<String> cached = cache.getIfPresent(key);
+            if (cached != null) {
+                handle(event, cached);
+                return;
+            }
+        }
+
+        List<String> completions;
+        try {
+            completions = command.tabComplete(sender, label, buffer.substring(space + 1).split(" ", -1));
+        } catch (Exception ignored) {
+            // Leave the event unhandled, so the completions are computed on the main thread instead
+            return;
+        }
+
+        List<String> result = Collections.unmodifiableList(Lists.newArrayList(completions));
+        if (key != null) cache.put(key, result);
+
+        handle(event, result);
+    }
+
+    private static void handle(@NotNull AsyncTabCompleteEvent event, @NotNull List<String> completions) {
+        event.setCompletions(Lists.newArrayList(completions));
+        event.setHandled(true);
+    }
+
+    private record Registration(@NotNull Command command, @Nullable Cache<Key, List<String>> cache) {
+    }
+
+    private record Key(@NotNull UUID uuid, @NotNull String buffer) {
+    }
+}
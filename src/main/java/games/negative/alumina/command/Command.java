@@ -26,22 +26,29 @@
 package games.negative.alumina.command;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import games.negative.alumina.logger.Logs;
 import games.negative.alumina.message.Message;
 import games.negative.alumina.util.MathUtil;
+import lombok.AccessLevel;
 import lombok.Getter;
+import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.permissions.Permission;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Predicate;
 
 @Getter
@@ -68,11 +75,38 @@ public abstract class Command extends org.bukkit.command.Command {
      */
     private static final Message USAGE = Message.of("<click:suggest_command:'/%command% %usage%'><red>Usage: <gray>/%command% %usage%</click>");
 
+    /**
+     * The message for when an argument of the argument schema cannot be parsed.
+     */
+    private static final Message INVALID_ARGUMENT = Message.of("<red>%error%");
+
+    /**
+     * The message for when a sender runs too many async executions of a command at once.
+     */
+    private static final Message ALREADY_RUNNING = Message.of("<red>Please wait for your previous command to finish.");
+
+    /**
+     * The message for when an async execution of a command fails.
+     */
+    private static final Message EXECUTION_FAILED = Message.of("<red>An error occurred while executing this command.");
+
     /**
      * The sub commands of this command.
      */
     private final List<Command> subCommands;
 
+    /**
+     * The sub commands of this command by their name and aliases, ignoring case.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Command> subCommandIndex;
+
+    /**
+     * The cached completion tree of the sub commands, rebuilt when a sub command is added.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile CompletionTree completionTree;
+
     /**
      * The permissions of this command.
      */
@@ -83,6 +117,11 @@ public abstract class Command extends org.bukkit.command.Command {
      */
     private final List<String> params;
 
+    /**
+     * The typed argument schema of this command.
+     */
+    private final List<Parameter<?>> arguments;
+
     /**
      * The shortcuts of this command.
      */
@@ -113,6 +152,32 @@ public abstract class Command extends org.bukkit.command.Command {
      */
     private final Predicate<Player> tabCompleteViewRequirement;
 
+    /**
+     * Whether the tab completions of this command are safe to compute off the main thread.
+     */
+    private final boolean asyncTabComplete;
+
+    /**
+     * How long asynchronous tab completions are cached per player and input, or null to not cache them.
+     */
+    private final Duration tabCompleteCache;
+
+    /**
+     * Whether this command is executed off the main thread.
+     */
+    private final boolean async;
+
+    /**
+     * The maximum amount of async executions of this command running at once per sender.
+     */
+    private final int asyncLimit;
+
+    /**
+     * The amount of async executions of this command running per sender.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<Object, Integer> running;
+
     /**
      * The parent command of this command.
      */
@@ -134,13 +199,27 @@ public abstract class Command extends org.bukkit.command.Command {
         super(properties.name());
         this.parent = parent;
         this.subCommands = Lists.newArrayList();
+        this.subCommandIndex = Maps.newTreeMap(String.CASE_INSENSITIVE_ORDER);
         this.permissions = properties.permissions();
         this.params = properties.params();
+        this.arguments = properties.arguments();
         this.shortcuts = properties.shortcuts();
         this.playerOnly = properties.playerOnly();
         this.consoleOnly = properties.consoleOnly();
         this.smartTabComplete = properties.smartTabComplete();
         this.tabCompleteViewRequirement = properties.tabCompleteViewRequirement();
+        this.asyncTabComplete = properties.asyncTabComplete();
+        this.tabCompleteCache = properties.tabCompleteCache();
+        this.async = properties.async();
+        this.asyncLimit = Math.max(1, properties.asyncLimit());
+        this.running = Maps.newConcurrentMap();
+
+        if (arguments != null) {
+            Set<String> names = Sets.newHashSet();
+            for (Parameter<?> parameter : arguments) {
+                Preconditions.checkArgument(names.add(parameter.name()), "Parameter %s is declared more than once.", parameter.name());
+            }
+        }
 
         if (properties.aliases() != null)
             applyAliases(properties);
@@ -150,6 +229,8 @@ public abstract class Command extends org.bukkit.command.Command {
 
         if (properties.usage() != null)
             this.setUsage(properties.usage());
+        else if (arguments != null)
+            this.setUsage("/" + properties.name() + " " + usage());
     }
 
     /**
@@ -169,21 +250,104 @@ public abstract class Command extends org.bukkit.command.Command {
      */
     @Override
     public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String[] args) {
-        // Long if-check, here's the breakdown:
-        // 1. Check if the console is using a player-only command,
-        //    or if the player is using a console-only command.
-        // 2. Check if the sender has the required permissions.
-        // 3. Check if there are any required parameters to be filled in.
-        // 4. Check if there are any subcommands to be executed before parent commands are executed.
-        if (checkConsolePlayerCommand(sender) || hasInvalidPermissions(sender, true) || !checkParams(sender, args) || checkSubCommands(sender, args))
-            return true;
-
-        // If all requirements are met, execute the command.
-        Context context = new Context(args, sender);
-        execute(context);
+        dispatch(sender, args, 0);
         return true;
     }
 
+    /**
+     * Executes the command with the arguments starting at the given offset, walking down the subcommands
+     * without copying the arguments.
+     *
+     * @param sender The command sender.
+     * @param args   The arguments of the root command.
+     * @param offset The index of the first argument of this command.
+     */
+    private void dispatch(@NotNull CommandSender sender, @NotNull String[] args, int offset) {
+        Command command = this;
+        while (true) {
+            // Long if-check, here's the breakdown:
+            // 1. Check if the console is using a player-only command,
+            //    or if the player is using a console-only command.
+            // 2. Check if the sender has the required permissions.
+            // 3. Check if there are any required parameters to be filled in.
+            if (command.checkConsolePlayerCommand(sender) || command.hasInvalidPermissions(sender, true) || !command.checkParams(sender, args.length - offset))
+                return;
+
+            // 4. Check if there are any subcommands to be executed before parent commands are executed.
+            Command subCommand = (offset < args.length ? command.getAvailableSubCommand(args[offset]) : null);
+            if (subCommand == null) break;
+
+            command = subCommand;
+            offset++;
+        }
+
+        // 5. Parse the argument schema, if the command has one.
+        Map<String, Object> values = command.parseArguments(sender, args, offset);
+        if (values == null) return;
+
+        // If all requirements are met, execute the command with only its own arguments.
+        String[] own = (offset == 0 ? args : Arrays.copyOfRange(args, offset, args.length));
+        Context context = new Context(own, sender, values);
+        if (command.async) {
+            command.executeAsync(context);
+            return;
+        }
+
+        command.execute(context);
+    }
+
+    /**
+     * Executes the command on the {@link AsyncCommandExecutor}, the requirements have already been checked
+     * on the main thread.
+     *
+     * @param context The context of the command.
+     */
+    private void executeAsync(@NotNull final Context context) {
+        CommandSender sender = context.sender();
+        Object key = (sender instanceof Player player ? player.getUniqueId() : sender.getName());
+
+        if (running.merge(key, 1, Integer::sum) > asyncLimit) {
+            release(key);
+            ALREADY_RUNNING.send(sender);
+            return;
+        }
+
+        try {
+            AsyncCommandExecutor.execute(() -> {
+                try {
+                    execute(context);
+                } catch (Throwable throwable) {
+                    report(sender, throwable);
+                } finally {
+                    release(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release(key);
+            report(sender, e);
+        }
+    }
+
+    /**
+     * Releases an async execution of the given sender.
+     *
+     * @param key The key of the sender.
+     */
+    private void release(@NotNull final Object key) {
+        running.computeIfPresent(key, (ignored, count) -> (count <= 1 ? null : count - 1));
+    }
+
+    /**
+     * Reports a failed async execution to the console and the sender.
+     *
+     * @param sender    The sender of the command.
+     * @param throwable The cause of the failure.
+     */
+    private void report(@NotNull final CommandSender sender, @NotNull final Throwable throwable) {
+        Logs.severe("Could not execute command " + getName() + ". (" + throwable + ")");
+        EXECUTION_FAILED.send(sender);
+    }
+
     /**
      * Adds a subcommand to the command.
      *
@@ -197,6 +361,24 @@ public abstract class Command extends org.bukkit.command.Command {
         command.parent = this;
 
         subCommands.add(command);
+        index(command);
+
+        invalidateCompletions();
+        return this;
+    }
+
+    /**
+     * Sets the aliases of this command, updating the subcommand index of its parent.
+     *
+     * @param aliases The aliases of the command.
+     * @return This command.
+     */
+    @NotNull
+    @Override
+    public org.bukkit.command.Command setAliases(@NotNull List<String> aliases) {
+        super.setAliases(aliases);
+
+        if (parent != null) parent.reindex();
         return this;
     }
 
@@ -269,43 +451,54 @@ public abstract class Command extends org.bukkit.command.Command {
         List<String> completions = onTabComplete(context);
         if (completions != null) return completions;
 
-        if (!smartTabComplete) return super.tabComplete(sender, alias, args);
+        // Subcommands are suggested before the arguments, which would otherwise hide them.
+        List<String> result = (smartTabComplete ? completeSubCommands(sender, args, context) : null);
+        if (result != null && !result.isEmpty()) return result;
+
+        completions = completeArguments(sender, args);
+        if (completions != null && !completions.isEmpty()) return completions;
+
+        return (result != null ? result : super.tabComplete(sender, alias, args));
+    }
+
+    /**
+     * Completes the current argument with the subcommands of the typed path, or the parameters of the typed subcommands.
+     *
+     * @param sender  The sender of the tab completion.
+     * @param args    The arguments of this command.
+     * @param context The context of the tab completion.
+     * @return The completions, or null if this command has no subcommands.
+     */
+    @Nullable
+    private List<String> completeSubCommands(@NotNull final CommandSender sender, @NotNull final String[] args, @NotNull final TabContext context) {
+        CompletionTree tree = completionTree();
+        if (tree.isEmpty()) return null;
 
         String current = context.current();
         int placement = args.length - 1;
 
         List<String> result = Lists.newArrayList();
 
-        Multimap<Integer, Command> subMap = getRecursive(this, 0);
-        if (subMap.isEmpty()) return super.tabComplete(sender, alias, args);
-
-        Collection<Command> commands = subMap.get(placement);
-        for (Command command : commands) {
-            if (hasInvalidPermissions(sender, false)) continue;
+        if (hasInvalidPermissions(sender, false) || !canView(sender)) return result;
 
-            if (tabCompleteViewRequirement != null && !tabCompleteViewRequirement.test((Player) sender)) continue;
+        // Walk down the typed subcommands, so only the subcommands of the last one are suggested.
+        Predicate<Command> visible = command -> !command.hasInvalidPermissions(sender, false) && command.canView(sender);
+        Command[] path = new Command[Math.max(placement, 0)];
+        Command parent = this;
+        int depth = 0;
+        while (depth < placement) {
+            Command next = tree.find(parent, args[depth]);
+            if (next == null || !visible.test(next)) break;
 
-            List<String> match = Lists.newArrayList(command.getName());
-            match.addAll(command.getAliases());
-            if (command.parent != null && command.subAliases != null) match.addAll(command.subAliases);
-
-            List<String> matched = match.stream().filter(entry -> entry.toLowerCase().contains(current)).toList();
-            result.addAll(matched);
+            path[depth++] = next;
+            parent = next;
         }
 
+        if (depth == placement) tree.complete(parent, current, visible, result);
         if (!result.isEmpty()) return result;
 
-        for (int i = args.length - 1; i >= 0; i--) {
-            if (i == placement) continue;
-
-            String arg = args[i];
-            if (arg.isEmpty()) continue;
-
-            Command cmd = subMap.get(i).stream()
-                    .filter(command -> command.getName().equalsIgnoreCase(arg) || command.getAliases().contains(arg.toLowerCase()) || (command.subAliases != null && command.subAliases.contains(arg.toLowerCase())))
-                    .findFirst().orElse(null);
-
-            if (cmd == null || hasInvalidPermissions(sender, false) || (tabCompleteViewRequirement != null && !tabCompleteViewRequirement.test((Player) sender))) continue;
+        for (int i = depth - 1; i >= 0; i--) {
+            Command cmd = path[i];
 
             List<String> completion = cmd.onTabComplete(context);
             if (completion != null && !completion.isEmpty()) {
@@ -313,9 +506,9 @@ public abstract class Command extends org.bukkit.command.Command {
                 continue;
             }
 
-            int depth = (MathUtil.absDiff(i, placement) - 1);
+            int index = (MathUtil.absDiff(i, placement) - 1);
             try {
-                String param = cmd.getParams().get(depth);
+                String param = cmd.getParams().get(index);
                 result.add("[<" + param + ">]");
             } catch (Exception ignored) {
             }
@@ -325,31 +518,92 @@ public abstract class Command extends org.bukkit.command.Command {
     }
 
     /**
-     * Retrieves all the recursive subcommands of a parent command up to a specified depth.
+     * Completes the current argument using the argument schema of the subcommand the arguments lead to.
+     *
+     * @param sender The sender of the tab completion.
+     * @param args   The arguments of this command.
+     * @return The completions, or null if the current argument is not part of an argument schema.
+     */
+    @Nullable
+    private List<String> completeArguments(@NotNull final CommandSender sender, @NotNull final String[] args) {
+        if (args.length == 0) return null;
+
+        Command target = this;
+        int offset = 0;
+        while (offset < args.length - 1) {
+            Command subCommand = target.getAvailableSubCommand(args[offset]);
+            if (subCommand == null) break;
+
+            target = subCommand;
+            offset++;
+        }
+
+        List<Parameter<?>> schema = target.arguments;
+        int index = args.length - 1 - offset;
+        if (schema == null || index >= schema.size() || target.hasInvalidPermissions(sender, false)) return null;
+
+        return schema.get(index).parser().complete(sender, args[args.length - 1]);
+    }
+
+    /**
+     * Parses the arguments of this command using its argument schema.
      *
-     * @param parent The parent command. Must not be null.
-     * @param depth  The maximum depth to retrieve the subcommands. Must be a positive integer.
-     * @return A Multimap containing the subcommands at each depth level under the parent command.
+     * @param sender The sender of the command.
+     * @param args   The arguments of the root command.
+     * @param offset The index of the first argument of this command.
+     * @return The parsed values by parameter name, or null if an argument is missing or invalid.
      */
-    private Multimap<Integer, Command> getRecursive(@NotNull final Command parent, final int depth) {
-        Preconditions.checkNotNull(parent, "Parent command cannot be null.");
+    @Nullable
+    private Map<String, Object> parseArguments(@NotNull final CommandSender sender, @NotNull final String[] args, final int offset) {
+        if (arguments == null || arguments.isEmpty()) return Collections.emptyMap();
 
-        Multimap<Integer, Command> map = ArrayListMultimap.create();
+        Map<String, Object> values = Maps.newHashMapWithExpectedSize(arguments.size());
+        for (int i = 0; i < arguments.size(); i++) {
+            Parameter<?> parameter = arguments.get(i);
 
-        List<Command> list = parent.getSubCommands();
-        for (Command cmd : list) {
-            int next = depth + 1;
-            map.put(depth, cmd);
+            int index = offset + i;
+            if (index >= args.length) {
+                if (parameter.optional()) continue;
 
-            Multimap<Integer, Command> recursive = getRecursive(cmd, next);
-            if (recursive.isEmpty()) continue;
+                sendUsage(sender);
+                return null;
+            }
 
-            map.putAll(recursive);
+            try {
+                values.put(parameter.name(), parameter.parser().parse(sender, args[index]));
+            } catch (ArgumentException e) {
+                INVALID_ARGUMENT.send(sender, "%error%", MiniMessage.miniMessage().escapeTags(String.valueOf(e.getMessage())));
+                return null;
+            }
         }
 
-        return map;
+        return values;
     }
 
+    /**
+     * Retrieves the completion tree of the subcommands, building it if it is not cached.
+     *
+     * @return The completion tree.
+     */
+    @NotNull
+    private CompletionTree completionTree() {
+        CompletionTree tree = this.completionTree;
+        if (tree == null) {
+            tree = CompletionTree.of(this);
+            this.completionTree = tree;
+        }
+        return tree;
+    }
+
+    /**
+     * Checks if the sender meets the tab complete view requirement of this command.
+     *
+     * @param sender The sender.
+     * @return Whether the sender can view the tab completions of this command.
+     */
+    private boolean canView(@NotNull final CommandSender sender) {
+        return tabCompleteViewRequirement == null || !(sender instanceof Player player) || tabCompleteViewRequirement.test(player);
+    }
 
     /**
      * Checks if the console is using a player-only command
@@ -395,40 +649,56 @@ public abstract class Command extends org.bukkit.command.Command {
     }
 
     /**
-     * Checks the subcommands based on the provided arguments and executes the corresponding subcommand.
+     * Retrieves the available subcommand based on the given argument.
      *
-     * @param sender The command sender. Must not be null.
-     * @param args   The arguments of the command. Must not be null.
-     * @return True if a subcommand is executed successfully, false otherwise.
+     * @param argument The argument to check for the available subcommand. Must not be null.
+     * @return The available subcommand that matches the argument, or null if no subcommand is found.
+     * @throws NullPointerException if the argument is null.
      */
-    private boolean checkSubCommands(@NotNull final CommandSender sender, @NotNull final String[] args) {
-        Preconditions.checkNotNull(sender, "Sender cannot be null.");
-        Preconditions.checkNotNull(args, "Arguments cannot be null.");
+    public Command getAvailableSubCommand(@NotNull final String argument) {
+        Preconditions.checkNotNull(argument, "Argument cannot be null.");
+
+        return subCommandIndex.get(argument);
+    }
+
+    /**
+     * Adds the name and aliases of the given subcommand to the index, earlier subcommands keep their names.
+     *
+     * @param command The subcommand to index.
+     */
+    private void index(@NotNull Command command) {
+        subCommandIndex.putIfAbsent(command.getName(), command);
 
-        if (args.length == 0 || subCommands.isEmpty()) return false;
+        for (String alias : command.getAliases()) {
+            subCommandIndex.putIfAbsent(alias, command);
+        }
 
-        String begin = args[0];
-        String[] snippet = Arrays.copyOfRange(args, 1, args.length);
+        if (command.subAliases == null) return;
 
-        Command subCommand = getAvailableSubCommand(begin);
-        return (subCommand != null && subCommand.execute(sender, begin, snippet));
+        for (String alias : command.subAliases) {
+            subCommandIndex.putIfAbsent(alias, command);
+        }
     }
 
     /**
-     * Retrieves the available subcommand based on the given argument.
-     *
-     * @param argument The argument to check for the available subcommand. Must not be null.
-     * @return The available subcommand that matches the argument, or null if no subcommand is found.
-     * @throws NullPointerException if the argument is null.
+     * Rebuilds the subcommand index after the labels of a subcommand changed.
      */
-    public Command getAvailableSubCommand(@NotNull final String argument) {
-        Preconditions.checkNotNull(argument, "Argument cannot be null.");
+    private void reindex() {
+        subCommandIndex.clear();
+        for (Command command : subCommands) {
+            index(command);
+        }
+
+        invalidateCompletions();
+    }
 
-        for (Command subCommand : subCommands) {
-            if (subCommand.getName().equalsIgnoreCase(argument) || subCommand.getAliases().contains(argument.toLowerCase()) || (subAliases != null && subAliases.contains(argument.toLowerCase())))
-                return subCommand;
+    /**
+     * Drops the cached completion trees of this command and its parents, which include the subcommands of this command.
+     */
+    private void invalidateCompletions() {
+        for (Command current = this; current != null; current = current.parent) {
+            current.completionTree = null;
         }
-        return null;
     }
 
     /**
@@ -443,42 +713,91 @@ public abstract class Command extends org.bukkit.command.Command {
         Preconditions.checkNotNull(sender, "Sender cannot be null.");
         Preconditions.checkNotNull(args, "Arguments cannot be null.");
 
-        if (this.params == null)
+        return checkParams(sender, args.length);
+    }
+
+    /**
+     * Checks if the given amount of arguments meets the parameters required for the command.
+     *
+     * @param sender The CommandSender executing the command. Must not be null.
+     * @param length The amount of arguments of the command.
+     * @return True if the parameters are valid, false otherwise.
+     */
+    private boolean checkParams(@NotNull final CommandSender sender, final int length) {
+        int required;
+        if (this.arguments != null) {
+            required = 0;
+            for (Parameter<?> parameter : arguments) {
+                if (!parameter.optional()) required++;
+            }
+        } else if (this.params != null) {
+            required = params.size();
+        } else {
             return true;
+        }
 
-        if (args.length < params.size()) {
-            StringBuilder builder = new StringBuilder();
-            for (String param : params)
-                builder.append("<").append(param).append(">").append(" ");
+        if (length < required) {
+            sendUsage(sender);
+            return false;
+        }
 
-            List<String> parentNames = Lists.newArrayList();
-            parentNames.add(getName());
+        return true;
+    }
 
-            Command search = this;
-            while (search.getParent() != null) {
-                parentNames.add(search.getParent().getName());
-                search = search.getParent();
-            }
+    /**
+     * Sends the usage of this command, including the names of its parent commands, to the sender.
+     *
+     * @param sender The CommandSender to send the usage to.
+     */
+    private void sendUsage(@NotNull final CommandSender sender) {
+        List<String> parentNames = Lists.newArrayList();
+        parentNames.add(getName());
+
+        Command search = this;
+        while (search.getParent() != null) {
+            parentNames.add(search.getParent().getName());
+            search = search.getParent();
+        }
 
-            Collections.reverse(parentNames);
+        Collections.reverse(parentNames);
 
-            StringBuilder parentBuilder = new StringBuilder();
+        StringBuilder parentBuilder = new StringBuilder();
 
-            int iteration = 0;
-            for (String parentName : parentNames) {
-                if (iteration != 0)
-                    parentBuilder.append(" ");
+        int iteration = 0;
+        for (String parentName : parentNames) {
+            if (iteration != 0)
+                parentBuilder.append(" ");
 
-                parentBuilder.append(parentName);
+            parentBuilder.append(parentName);
 
-                iteration++;
-            }
+            iteration++;
+        }
 
-            USAGE.send(sender, "%command%", parentBuilder.toString(), "%usage%", builder.toString());
-            return false;
+        USAGE.send(sender, "%command%", parentBuilder.toString(), "%usage%", usage());
+    }
+
+    /**
+     * Builds the usage of the parameters of this command, from the argument schema if it has one.
+     *
+     * @return The usage of the parameters.
+     */
+    @NotNull
+    private String usage() {
+        if (arguments != null) {
+            StringJoiner joiner = new StringJoiner(" ");
+            for (Parameter<?> parameter : arguments)
+                joiner.add(parameter.usage());
+
+            return joiner.toString();
         }
 
-        return true;
+        StringBuilder builder = new StringBuilder();
+        if (params != null) {
+            for (String param : params)
+                builder.append("<").append(param).append(">").append(" ");
+        }
+
+        return builder.toString();
     }
 
     /**
@@ -31,6 +31,7 @@ import org.bukkit.permissions.Permission;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -42,11 +43,16 @@ import java.util.function.Predicate;
  * @param aliases The aliases of the command.
  * @param permissions The permissions required to execute the command.
  * @param params The required parameters of the command.
+ * @param arguments The typed argument schema of the command, parsed into the {@link Context} before execution.
  * @param shortcuts The shortcuts of the command.
  * @param playerOnly Whether the command can only be executed by players.
  * @param consoleOnly Whether the command can only be executed by the console.
  * @param smartTabComplete Whether the command should use smart tab completion.
  * @param tabCompleteViewRequirement The predicate to test the players against for tab completion.
+ * @param asyncTabComplete Whether the tab completions of the command are safe to compute off the main thread.
+ * @param tabCompleteCache How long asynchronous tab completions are cached per player and input, or null to not cache them.
+ * @param async Whether the command is executed off the main thread, see {@link AsyncCommandExecutor}.
+ * @param asyncLimit The maximum amount of async executions of the command running at once per sender, one if not positive.
  */
 @Builder
 public record CommandProperties(
@@ -56,11 +62,19 @@ public record CommandProperties(
         @Nullable List<String> aliases,
         @Nullable List<Permission> permissions,
         @Nullable List<String> params,
+        @Nullable List<Parameter<?>> arguments,
         @Nullable List<String> shortcuts,
         boolean playerOnly,
         boolean consoleOnly,
         boolean smartTabComplete,
-        @Nullable Predicate<Player> tabCompleteViewRequirement
+        @Nullable Predicate<Player> tabCompleteViewRequirement,
+        boolean asyncTabComplete,
+        @Nullable Duration tabCompleteCache,
+        boolean async,
+        int asyncLimit
         ) {
 
+    public CommandProperties(@NotNull String name, @Nullable String description, @Nullable String usage, @Nullable List<String> aliases, @Nullable List<Permission> permissions, @Nullable List<String> params, @Nullable List<String> shortcuts, boolean playerOnly, boolean consoleOnly, boolean smartTabComplete, @Nullable Predicate<Player> tabCompleteViewRequirement) {
+        this(name, description, usage, aliases, permissions, params, null, shortcuts, playerOnly, consoleOnly, smartTabComplete, tabCompleteViewRequirement, false, null, false, 1);
+    }
 }
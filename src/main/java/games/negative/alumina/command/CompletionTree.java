@@ -0,0 +1,168 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.alumina.command;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A precomputed view of the subcommand tree of a {@link Command}, with one level per parent command.
+ * <p>
+ * The labels of every subcommand are collected and lowercased once, so smart tab completion
+ * only has to walk the subcommands of the typed path instead of rebuilding the tree.
+ */
+final class CompletionTree {
+
+    private final Map<Command, Level> levels;
+
+    private CompletionTree(@NotNull Map<Command, Level> levels) {
+        this.levels = levels;
+    }
+
+    /**
+     * Builds the completion tree of all subcommands below the given command.
+     *
+     * @param root The command to build the tree for.
+     * @return The completion tree.
+     */
+    @NotNull
+    static CompletionTree of(@NotNull Command root) {
+        Preconditions.checkNotNull(root, "Root cannot be null.");
+
+        Map<Command, Level> levels = Maps.newIdentityHashMap();
+        collect(root, levels);
+
+        return new CompletionTree(levels);
+    }
+
+    private static void collect(@NotNull Command parent, @NotNull Map<Command, Level> levels) {
+        List<Command> commands = parent.getSubCommands();
+        if (commands.isEmpty() || levels.containsKey(parent)) return;
+
+        levels.put(parent, Level.of(commands));
+        for (Command command : commands) {
+            collect(command, levels);
+        }
+    }
+
+    /**
+     * Checks if the tree has no subcommands at all.
+     *
+     * @return True if there are no subcommands, false otherwise.
+     */
+    boolean isEmpty() {
+        return levels.isEmpty();
+    }
+
+    /**
+     * Adds every label of the subcommands of the given parent which contains the current argument to the result.
+     *
+     * @param parent  The command whose subcommands are completed.
+     * @param current The argument being completed.
+     * @param filter  The filter a subcommand must pass for its labels to be suggested.
+     * @param result  The list to add the labels to.
+     */
+    void complete(@NotNull Command parent, @NotNull String current, @NotNull Predicate<Command> filter, @NotNull List<String> result) {
+        Level level = levels.get(parent);
+        if (level == null) return;
+
+        Command last = null;
+        boolean allowed = false;
+        for (int i = 0; i < level.labels.length; i++) {
+            if (!level.lowered[i].contains(current)) continue;
+
+            Command owner = level.owners[i];
+            if (owner != last) {
+                last = owner;
+                allowed = filter.test(owner);
+            }
+
+            if (allowed) result.add(level.labels[i]);
+        }
+    }
+
+    /**
+     * Finds the subcommand of the given parent by its name or one of its aliases, ignoring case.
+     *
+     * @param parent   The command whose subcommands are searched.
+     * @param argument The argument.
+     * @return The subcommand, or null if none matches.
+     */
+    @Nullable
+    Command find(@NotNull Command parent, @NotNull String argument) {
+        Level level = levels.get(parent);
+        if (level == null) return null;
+
+        return level.index.get(argument);
+    }
+
+    private record Level(String[] labels, String[] lowered, Command[] owners, Map<String, Command> index) {
+
+        @NotNull
+        static Level of(@NotNull List<Command> commands) {
+            List<String> labels = Lists.newArrayList();
+            List<Command> owners = Lists.newArrayList();
+            Map<String, Command> index = Maps.newTreeMap(String.CASE_INSENSITIVE_ORDER);
+
+            for (Command command : commands) {
+                add(command, command.getName(), labels, owners, index);
+
+                for (String alias : command.getAliases()) {
+                    add(command, alias, labels, owners, index);
+                }
+
+                List<String> subAliases = command.getSubAliases();
+                if (subAliases == null) continue;
+
+                for (String alias : subAliases) {
+                    add(command, alias, labels, owners, index);
+                }
+            }
+
+            String[] lowered = new String[labels.size()];
+            for (int i = 0; i < lowered.length; i++) {
+                lowered[i] = labels.get(i).toLowerCase(Locale.ROOT);
+            }
+
+            return new Level(labels.toArray(String[]::new), lowered, owners.toArray(Command[]::new), index);
+        }
+
+        private static void add(@NotNull Command command, @NotNull String label, @NotNull List<String> labels, @NotNull List<Command> owners, @NotNull Map<String, Command> index) {
+            labels.add(label);
+            owners.add(command);
+            index.putIfAbsent(label, command);
+        }
+    }
+}
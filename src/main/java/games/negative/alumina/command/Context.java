@@ -27,8 +27,10 @@ package games.negative.alumina.command;
 
 import com.google.common.base.Preconditions;
 import games.negative.alumina.future.BukkitFuture;
+import games.negative.alumina.message.MessageQueue;
 import games.negative.alumina.util.MiniMessageUtil;
 import games.negative.alumina.util.PlayerUtil;
+import games.negative.alumina.util.Tasks;
 import net.kyori.adventure.audience.Audience;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
@@ -37,15 +39,35 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 
 /**
  * This class is used to represent the context of a command when executed.
  * @param args The arguments of the command
  * @param sender The sender of the command
+ * @param values The parsed values of the argument schema of the command, by parameter name
  */
-public record Context(@NotNull String[] args, @NotNull CommandSender sender) {
+public record Context(@NotNull String[] args, @NotNull CommandSender sender, @NotNull Map<String, Object> values) {
+
+    /**
+     * Runs tasks on the main thread, directly if already on it.
+     */
+    private static final Executor MAIN_THREAD = task -> {
+        if (Bukkit.isPrimaryThread()) task.run();
+        else Tasks.run(task);
+    };
+
+    public Context(@NotNull String[] args, @NotNull CommandSender sender) {
+        this(args, sender, Collections.emptyMap());
+    }
 
     /**
      * Returns the player who executed the command.
@@ -63,27 +85,96 @@ public record Context(@NotNull String[] args, @NotNull CommandSender sender) {
      */
     @NotNull
     public Optional<String> argument(final int index) {
-        return (index >= args.length ? Optional.empty() : Optional.of(args[index]));
+        return (index < 0 || index >= length() ? Optional.empty() : Optional.of(args[index]));
     }
 
     /**
-     * Send a message to the sender of the command.
+     * Returns the parsed value of the given parameter.
+     * @param parameter The parameter of the argument schema.
+     * @return the parsed value, or empty if the parameter is optional and was left out.
+     * @param <T> The type of the parsed value.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> value(@NotNull final Parameter<T> parameter) {
+        Preconditions.checkNotNull(parameter, "parameter cannot be null");
+
+        return Optional.ofNullable((T) values.get(parameter.name()));
+    }
+
+    /**
+     * Returns the parsed value of the given required parameter.
+     * @param parameter The parameter of the argument schema.
+     * @return the parsed value.
+     * @param <T> The type of the parsed value.
+     * @throws IllegalStateException if the parameter has no value.
+     */
+    @NotNull
+    public <T> T get(@NotNull final Parameter<T> parameter) {
+        return value(parameter).orElseThrow(() -> new IllegalStateException("No value for parameter " + parameter.name()));
+    }
+
+    /**
+     * Runs the given task on the main thread, for Bukkit API calls from an async command.
+     * @param task The task to run.
+     * @return a future completing once the task has run.
+     */
+    @NotNull
+    public CompletableFuture<Void> sync(@NotNull final Runnable task) {
+        Preconditions.checkNotNull(task, "task cannot be null");
+
+        return CompletableFuture.runAsync(task, MAIN_THREAD);
+    }
+
+    /**
+     * Supplies a value on the main thread, for Bukkit API calls from an async command.
+     * @param supplier The supplier of the value.
+     * @return a future completing with the supplied value.
+     * @param <T> The type of the value.
+     */
+    @NotNull
+    public <T> CompletableFuture<T> supplySync(@NotNull final Supplier<T> supplier) {
+        Preconditions.checkNotNull(supplier, "supplier cannot be null");
+
+        return CompletableFuture.supplyAsync(supplier, MAIN_THREAD);
+    }
+
+    /**
+     * Continues on the main thread with the result of the given stage once it completes.
+     * @param stage The stage to wait for.
+     * @param task The task to run with the result.
+     * @return a future completing once the task has run.
+     * @param <T> The type of the result.
+     */
+    @NotNull
+    public <T> CompletableFuture<Void> thenSync(@NotNull final CompletionStage<T> stage, @NotNull final Consumer<? super T> task) {
+        Preconditions.checkNotNull(stage, "stage cannot be null");
+        Preconditions.checkNotNull(task, "task cannot be null");
+
+        return stage.thenAcceptAsync(task, MAIN_THREAD).toCompletableFuture();
+    }
+
+    /**
+     * Send a message to the sender of the command, through the {@link MessageQueue} if the sender is a player.
      * @param message The message to send.
      */
     public void message(@NotNull final String message) {
-        Preconditions.checkNotNull(message, "message cannot be null");
-
-        sender().sendMessage(MiniMessageUtil.translate(message));
+        message(sender(), message);
     }
 
     /**
-     * Send a message to the specified receiver.
+     * Send a message to the specified receiver, through the {@link MessageQueue} if the receiver is a player.
      * @param receiver The receiver of the message.
      * @param message The message to send.
      */
     public void message(@NotNull Audience receiver, @NotNull final String message) {
         Preconditions.checkNotNull(message, "message cannot be null");
 
+        if (receiver instanceof Player player) {
+            MessageQueue.send(player, MiniMessageUtil.translate(message));
+            return;
+        }
+
         receiver.sendMessage(MiniMessageUtil.translate(message));
     }
 
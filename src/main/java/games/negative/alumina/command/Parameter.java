@@ -0,0 +1,78 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.alumina.command;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A typed parameter in the argument schema of a command.
+ * @param name The name of the parameter, shown in the usage of the command.
+ * @param parser The parser of the parameter.
+ * @param optional Whether the parameter can be left out.
+ * @param <T> The type of the parsed value.
+ */
+public record Parameter<T>(@NotNull String name, @NotNull ArgumentParser<T> parser, boolean optional) {
+
+    public Parameter {
+        Preconditions.checkNotNull(name, "Name cannot be null.");
+        Preconditions.checkNotNull(parser, "Parser cannot be null.");
+    }
+
+    /**
+     * Creates a parameter which must be given.
+     * @param name The name of the parameter.
+     * @param parser The parser of the parameter.
+     * @return the parameter.
+     * @param <T> The type of the parsed value.
+     */
+    @NotNull
+    public static <T> Parameter<T> required(@NotNull String name, @NotNull ArgumentParser<T> parser) {
+        return new Parameter<>(name, parser, false);
+    }
+
+    /**
+     * Creates a parameter which can be left out.
+     * @param name The name of the parameter.
+     * @param parser The parser of the parameter.
+     * @return the parameter.
+     * @param <T> The type of the parsed value.
+     */
+    @NotNull
+    public static <T> Parameter<T> optional(@NotNull String name, @NotNull ArgumentParser<T> parser) {
+        return new Parameter<>(name, parser, true);
+    }
+
+    /**
+     * Returns the usage of the parameter, such as {@code <amount>} or {@code [amount]} when optional.
+     * @return the usage of the parameter.
+     */
+    @NotNull
+    public String usage() {
+        return (optional ? "[" + name + "]" : "<" + name + ">");
+    }
+}
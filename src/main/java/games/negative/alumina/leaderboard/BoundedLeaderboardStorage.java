@@ -0,0 +1,232 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A {@link LeaderboardStorage} which only keeps the best entries up to a fixed capacity.
+ * <p>
+ * Entries which fall below the cut-off are moved to a reserve of the same capacity and discarded once they
+ * fall out of the reserve as well, so memory stays bounded no matter how many keys are offered. The best
+ * entries of the reserve move back up whenever an entry leaves the window or falls below them.
+ * <p>
+ * Use {@link Leaderboard#computePosition(Object)} to get the position of a key which is outside of the window.
+ * @param <K> Key type which can be used for identification, such as {@link java.util.UUID}!
+ * @param <V> Value type which can be used for sorting, such as {@link java.lang.Integer}!
+ */
+public class BoundedLeaderboardStorage<K, V extends Comparable<V>> implements LeaderboardStorage<K, V> {
+
+    private final IndexedLeaderboardStorage<K, V> delegate;
+    private final IndexedLeaderboardStorage<K, V> reserve;
+    private final Comparator<V> comparator;
+    private final int capacity;
+
+    /**
+     * Creates a new bounded storage with the given comparing type and capacity.
+     * @param comparing Comparing type of the storage.
+     * @param capacity Maximum amount of entries to keep, the reserve keeps as many runners-up.
+     */
+    public BoundedLeaderboardStorage(@NotNull final LeaderboardComparingType comparing, final int capacity) {
+        Preconditions.checkNotNull(comparing, "Comparing cannot be null!");
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive!");
+
+        this.delegate = new IndexedLeaderboardStorage<>(comparing);
+        this.reserve = new IndexedLeaderboardStorage<>(comparing);
+        this.comparator = comparing.comparator();
+        this.capacity = capacity;
+    }
+
+    @Nullable
+    @Override
+    public V put(@NotNull final K key, @NotNull final V value) {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+        Preconditions.checkNotNull(value, "Value cannot be null!");
+
+        if (delegate.value(key) == null) {
+            reserve.remove(key);
+
+            // Entries with an equal value keep their place, so the newcomer has to be strictly better.
+            LeaderboardEntry<K, V> last = (delegate.size() >= capacity ? delegate.entry(delegate.size()) : null);
+            if (last != null && comparator.compare(value, last.value()) >= 0) {
+                hold(key, value);
+                return null;
+            }
+        }
+
+        V previous = delegate.put(key, value);
+        balance();
+        return previous;
+    }
+
+    @Override
+    public int putAll(@NotNull final Map<K, V> values) {
+        Preconditions.checkNotNull(values, "Values cannot be null!");
+
+        // Keys inside the window are repositioned first, so a key which dropped can still be
+        // replaced by a better key from outside the window later on in the same batch.
+        Map<K, V> inside = Maps.newLinkedHashMap();
+        for (Map.Entry<K, V> entry : values.entrySet()) {
+            if (delegate.value(entry.getKey()) != null) inside.put(entry.getKey(), entry.getValue());
+        }
+
+        int changed = delegate.putAll(inside);
+        balance();
+
+        // Offering one by one rejects most keys right away, instead of ordering all of them first.
+        for (Map.Entry<K, V> entry : values.entrySet()) {
+            if (inside.containsKey(entry.getKey())) continue;
+
+            if (put(entry.getKey(), entry.getValue()) == null && delegate.value(entry.getKey()) != null) changed++;
+        }
+
+        return changed;
+    }
+
+    @Nullable
+    @Override
+    public V remove(@NotNull final K key) {
+        V removed = delegate.remove(key);
+        if (removed == null) {
+            reserve.remove(key);
+            return null;
+        }
+
+        balance();
+        return removed;
+    }
+
+    @Nullable
+    @Override
+    public V value(@NotNull final K key) {
+        return delegate.value(key);
+    }
+
+    @Override
+    public int position(@NotNull final K key) {
+        return delegate.position(key);
+    }
+
+    @Nullable
+    @Override
+    public LeaderboardEntry<K, V> entry(final int position) {
+        return delegate.entry(position);
+    }
+
+    @NotNull
+    @Override
+    public List<LeaderboardEntry<K, V>> range(final int from, final int to) {
+        return delegate.range(from, to);
+    }
+
+    @Override
+    public void forEach(@NotNull final Consumer<LeaderboardEntry<K, V>> consumer) {
+        delegate.forEach(consumer);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @NotNull
+    @Override
+    public LeaderboardSnapshot<K, V> snapshot(final long version) {
+        return delegate.snapshot(version);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        reserve.clear();
+    }
+
+    @NotNull
+    @Override
+    public LeaderboardStorage<K, V> emptyCopy() {
+        return new BoundedLeaderboardStorage<>(delegate.comparing(), capacity);
+    }
+
+    @NotNull
+    @Override
+    public LeaderboardComparingType comparing() {
+        return delegate.comparing();
+    }
+
+    /**
+     * Gets the maximum amount of entries this storage keeps.
+     * @return Capacity of the storage.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Moves entries between the window and the reserve until the window holds the best known entries.
+     */
+    private void balance() {
+        while (delegate.size() > capacity)
+            demote(delegate.entry(delegate.size()));
+
+        while (reserve.size() > 0) {
+            LeaderboardEntry<K, V> best = reserve.entry(1);
+            if (delegate.size() >= capacity) {
+                LeaderboardEntry<K, V> last = delegate.entry(delegate.size());
+                if (comparator.compare(best.value(), last.value()) >= 0) return;
+
+                demote(last);
+            }
+
+            reserve.remove(best.key());
+            delegate.put(best.key(), best.value());
+        }
+    }
+
+    private void demote(@NotNull final LeaderboardEntry<K, V> entry) {
+        delegate.remove(entry.key());
+        hold(entry.key(), entry.value());
+    }
+
+    /**
+     * Keeps an entry outside of the window in the reserve, discarding the worst entry if it is full.
+     */
+    private void hold(@NotNull final K key, @NotNull final V value) {
+        reserve.put(key, value);
+
+        while (reserve.size() > capacity)
+            reserve.remove(reserve.entry(reserve.size()).key());
+    }
+}
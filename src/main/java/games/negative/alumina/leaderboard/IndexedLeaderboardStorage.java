@@ -0,0 +1,580 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A {@link LeaderboardStorage} backed by an order-statistic tree and a key index tree.
+ * <p>
+ * The order tree is a size-augmented AVL tree, so inserting, removing, looking up the position of a key
+ * and looking up the entry at a position are all logarithmic. Entries with equal values keep the
+ * order in which they were inserted.
+ * <p>
+ * Both trees are persistent, every change copies the path it touched instead of modifying nodes in place,
+ * so a {@link #snapshot(long)} only has to keep a reference to the current roots.
+ * <p>
+ * Bulk inserts which touch a large part of the tree are merged as a sorted delta into the existing
+ * ordering and the tree is rebuilt in linear time, instead of repositioning every key one by one.
+ * @param <K> Key type which can be used for identification, such as {@link java.util.UUID}!
+ * @param <V> Value type which can be used for sorting, such as {@link java.lang.Integer}!
+ */
+public class IndexedLeaderboardStorage<K, V extends Comparable<V>> implements LeaderboardStorage<K, V> {
+
+    private static final Comparator<Slot<?, ?>> BY_HASH = (first, second) -> {
+        int compared = Integer.compare(first.hash, second.hash);
+        return (compared != 0 ? compared : Long.compare(first.sequence, second.sequence));
+    };
+
+    private final LeaderboardComparingType comparing;
+    private final Comparator<Slot<K, V>> order;
+
+    private Node<Slot<K, V>> root;
+    private Node<Slot<K, V>> index;
+    private long sequence;
+
+    /**
+     * Creates a new indexed storage with the given comparing type.
+     * @param comparing Comparing type of the storage.
+     */
+    public IndexedLeaderboardStorage(@NotNull final LeaderboardComparingType comparing) {
+        Preconditions.checkNotNull(comparing, "Comparing cannot be null!");
+
+        this.comparing = comparing;
+
+        Comparator<V> comparator = comparing.comparator();
+        this.order = (first, second) -> {
+            int compared = comparator.compare(first.entry.value(), second.entry.value());
+            return (compared != 0 ? compared : Long.compare(first.sequence, second.sequence));
+        };
+    }
+
+    @Nullable
+    @Override
+    public V put(@NotNull final K key, @NotNull final V value) {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+        Preconditions.checkNotNull(value, "Value cannot be null!");
+
+        Slot<K, V> existing = find(index, key);
+        if (existing != null) {
+            V previous = existing.entry.value();
+            if (previous.equals(value)) return previous;
+
+            root = delete(root, existing, order);
+            index = delete(index, existing, BY_HASH);
+        }
+
+        Slot<K, V> slot = new Slot<>(new LeaderboardEntry<>(key, value, comparing), sequence++);
+        root = insert(root, slot, order);
+        index = insert(index, slot, BY_HASH);
+
+        return (existing == null ? null : existing.entry.value());
+    }
+
+    @Override
+    public int putAll(@NotNull final Map<K, V> values) {
+        Preconditions.checkNotNull(values, "Values cannot be null!");
+
+        List<Slot<K, V>> delta = Lists.newArrayListWithCapacity(values.size());
+        List<Slot<K, V>> replaced = Lists.newArrayList();
+        for (Map.Entry<K, V> entry : values.entrySet()) {
+            K key = Preconditions.checkNotNull(entry.getKey(), "Key cannot be null!");
+            V value = Preconditions.checkNotNull(entry.getValue(), "Value cannot be null!");
+
+            Slot<K, V> existing = find(index, key);
+            if (existing != null && existing.entry.value().equals(value)) continue;
+
+            if (existing != null) replaced.add(existing);
+            delta.add(new Slot<>(new LeaderboardEntry<>(key, value, comparing), sequence++));
+        }
+
+        if (delta.isEmpty()) return 0;
+
+        for (Slot<K, V> slot : replaced)
+            index = delete(index, slot, BY_HASH);
+
+        for (Slot<K, V> slot : delta)
+            index = insert(index, slot, BY_HASH);
+
+        // Repositioning costs a logarithmic walk per key, merging costs a linear walk of the whole tree.
+        int size = size();
+        int depth = 32 - Integer.numberOfLeadingZeros(size + 1);
+        if ((long) delta.size() * depth < size) {
+            for (Slot<K, V> slot : replaced)
+                root = delete(root, slot, order);
+
+            for (Slot<K, V> slot : delta)
+                root = insert(root, slot, order);
+
+            return delta.size();
+        }
+
+        delta.sort(order);
+
+        List<Slot<K, V>> merged = Lists.newArrayListWithCapacity(size + delta.size());
+        int position = 0;
+
+        Deque<Node<Slot<K, V>>> stack = new ArrayDeque<>();
+        Node<Slot<K, V>> current = root;
+        while (current != null || !stack.isEmpty()) {
+            while (current != null) {
+                stack.push(current);
+                current = current.left;
+            }
+
+            current = stack.pop();
+            Slot<K, V> slot = current.item;
+
+            // Keys which are part of the delta are replaced by their repositioned slot.
+            V offered = values.get(slot.entry.key());
+            if (offered == null || offered.equals(slot.entry.value())) {
+                while (position < delta.size() && order.compare(delta.get(position), slot) < 0)
+                    merged.add(delta.get(position++));
+
+                merged.add(slot);
+            }
+
+            current = current.right;
+        }
+
+        while (position < delta.size())
+            merged.add(delta.get(position++));
+
+        root = build(merged, 0, merged.size() - 1);
+        return delta.size();
+    }
+
+    @Nullable
+    @Override
+    public V remove(@NotNull final K key) {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+
+        Slot<K, V> existing = find(index, key);
+        if (existing == null) return null;
+
+        root = delete(root, existing, order);
+        index = delete(index, existing, BY_HASH);
+        return existing.entry.value();
+    }
+
+    @Nullable
+    @Override
+    public V value(@NotNull final K key) {
+        Slot<K, V> slot = find(index, key);
+        return (slot == null ? null : slot.entry.value());
+    }
+
+    @Override
+    public int position(@NotNull final K key) {
+        Slot<K, V> slot = find(index, key);
+        return (slot == null ? -1 : rank(root, slot, order));
+    }
+
+    @Nullable
+    @Override
+    public LeaderboardEntry<K, V> entry(final int position) {
+        Slot<K, V> slot = select(root, position);
+        return (slot == null ? null : slot.entry);
+    }
+
+    @NotNull
+    @Override
+    public List<LeaderboardEntry<K, V>> range(final int from, final int to) {
+        return range(root, from, to);
+    }
+
+    @Override
+    public void forEach(@NotNull final Consumer<LeaderboardEntry<K, V>> consumer) {
+        Preconditions.checkNotNull(consumer, "Consumer cannot be null!");
+
+        forEach(root, consumer);
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @NotNull
+    @Override
+    public LeaderboardSnapshot<K, V> snapshot(final long version) {
+        return new Shared<>(root, index, order, version);
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        index = null;
+    }
+
+    @NotNull
+    @Override
+    public LeaderboardStorage<K, V> emptyCopy() {
+        return new IndexedLeaderboardStorage<>(comparing);
+    }
+
+    @NotNull
+    @Override
+    public LeaderboardComparingType comparing() {
+        return comparing;
+    }
+
+    /**
+     * Finds the slot of the given key in the index tree.
+     * @param node Root of the index tree.
+     * @param key Key to find.
+     * @return Slot of the key, or null if the key is not present.
+     */
+    @Nullable
+    private static <K, V extends Comparable<V>> Slot<K, V> find(@Nullable Node<Slot<K, V>> node, @NotNull final K key) {
+        int hash = key.hashCode();
+        while (node != null) {
+            Slot<K, V> slot = node.item;
+            if (hash < slot.hash) {
+                node = node.left;
+                continue;
+            }
+
+            if (hash > slot.hash) {
+                node = node.right;
+                continue;
+            }
+
+            if (slot.entry.key().equals(key)) return slot;
+
+            // Keys with a colliding hash are ordered by sequence, so they can sit on either side.
+            Slot<K, V> left = find(node.left, key);
+            if (left != null) return left;
+
+            node = node.right;
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the position of the given slot in the order tree.
+     * @return Position of the slot starting at 1, or -1 if it is not part of the tree.
+     */
+    private static <T> int rank(@Nullable final Node<T> root, @NotNull final T item, @NotNull final Comparator<? super T> order) {
+        int position = 1;
+        Node<T> current = root;
+        while (current != null) {
+            int compared = order.compare(item, current.item);
+            if (compared < 0) {
+                current = current.left;
+                continue;
+            }
+
+            if (compared == 0) return position + size(current.left);
+
+            position += size(current.left) + 1;
+            current = current.right;
+        }
+
+        return -1;
+    }
+
+    @Nullable
+    private static <T> T select(@Nullable final Node<T> root, final int position) {
+        if (position < 1 || position > size(root)) return null;
+
+        int index = position - 1;
+        Node<T> current = root;
+        while (current != null) {
+            int left = size(current.left);
+            if (index < left) {
+                current = current.left;
+                continue;
+            }
+
+            if (index == left) return current.item;
+
+            index -= left + 1;
+            current = current.right;
+        }
+
+        return null;
+    }
+
+    @NotNull
+    private static <K, V extends Comparable<V>> List<LeaderboardEntry<K, V>> range(@Nullable final Node<Slot<K, V>> root, final int from, final int to) {
+        int start = Math.max(from, 1) - 1;
+        int end = Math.min(to, size(root));
+        if (start >= end) return Lists.newArrayList();
+
+        List<LeaderboardEntry<K, V>> entries = Lists.newArrayListWithCapacity(end - start);
+        collect(root, start, end, 0, entries);
+        return entries;
+    }
+
+    private static <K, V extends Comparable<V>> void forEach(@Nullable final Node<Slot<K, V>> root, @NotNull final Consumer<LeaderboardEntry<K, V>> consumer) {
+        Deque<Node<Slot<K, V>>> stack = new ArrayDeque<>();
+        Node<Slot<K, V>> current = root;
+        while (current != null || !stack.isEmpty()) {
+            while (current != null) {
+                stack.push(current);
+                current = current.left;
+            }
+
+            current = stack.pop();
+            consumer.accept(current.item.entry);
+            current = current.right;
+        }
+    }
+
+    /**
+     * Collects the entries with a zero-based index between the given bounds, skipping subtrees outside of them.
+     * @param node Subtree to collect from.
+     * @param start First index to include.
+     * @param end First index to exclude.
+     * @param offset Index of the first entry in the subtree.
+     * @param entries List to collect into.
+     */
+    private static <K, V extends Comparable<V>> void collect(@Nullable final Node<Slot<K, V>> node, final int start, final int end, final int offset, @NotNull final List<LeaderboardEntry<K, V>> entries) {
+        if (node == null) return;
+
+        int index = offset + size(node.left);
+        if (start < index)
+            collect(node.left, start, end, offset, entries);
+
+        if (index >= start && index < end)
+            entries.add(node.item.entry);
+
+        if (end > index + 1)
+            collect(node.right, start, end, index + 1, entries);
+    }
+
+    /**
+     * Builds a balanced tree out of the given items, which must already be in order.
+     * @param items Items to build the tree with.
+     * @param start First index to include.
+     * @param end Last index to include.
+     * @return Root of the built tree.
+     */
+    @Nullable
+    private static <T> Node<T> build(@NotNull final List<T> items, final int start, final int end) {
+        if (start > end) return null;
+
+        int middle = (start + end) >>> 1;
+        return new Node<>(items.get(middle), build(items, start, middle - 1), build(items, middle + 1, end));
+    }
+
+    @NotNull
+    private static <T> Node<T> insert(@Nullable final Node<T> current, @NotNull final T item, @NotNull final Comparator<? super T> order) {
+        if (current == null) return new Node<>(item, null, null);
+
+        if (order.compare(item, current.item) < 0) return balance(current.item, insert(current.left, item, order), current.right);
+        return balance(current.item, current.left, insert(current.right, item, order));
+    }
+
+    @Nullable
+    private static <T> Node<T> delete(@Nullable final Node<T> current, @NotNull final T item, @NotNull final Comparator<? super T> order) {
+        if (current == null) return null;
+
+        if (current.item == item) {
+            if (current.left == null) return current.right;
+            if (current.right == null) return current.left;
+
+            Node<T> successor = current.right;
+            while (successor.left != null)
+                successor = successor.left;
+
+            return balance(successor.item, current.left, deleteMin(current.right));
+        }
+
+        if (order.compare(item, current.item) < 0) return balance(current.item, delete(current.left, item, order), current.right);
+        return balance(current.item, current.left, delete(current.right, item, order));
+    }
+
+    @Nullable
+    private static <T> Node<T> deleteMin(@NotNull final Node<T> current) {
+        if (current.left == null) return current.right;
+
+        return balance(current.item, deleteMin(current.left), current.right);
+    }
+
+    /**
+     * Creates a node with the given children, rotating it back into balance if needed.
+     */
+    @NotNull
+    private static <T> Node<T> balance(@NotNull final T item, @Nullable final Node<T> left, @Nullable final Node<T> right) {
+        int factor = height(left) - height(right);
+        if (factor > 1) {
+            if (height(left.left) >= height(left.right))
+                return new Node<>(left.item, left.left, new Node<>(item, left.right, right));
+
+            Node<T> pivot = left.right;
+            return new Node<>(pivot.item, new Node<>(left.item, left.left, pivot.left), new Node<>(item, pivot.right, right));
+        }
+
+        if (factor < -1) {
+            if (height(right.right) >= height(right.left))
+                return new Node<>(right.item, new Node<>(item, left, right.left), right.right);
+
+            Node<T> pivot = right.left;
+            return new Node<>(pivot.item, new Node<>(item, left, pivot.left), new Node<>(right.item, pivot.right, right.right));
+        }
+
+        return new Node<>(item, left, right);
+    }
+
+    private static int height(@Nullable final Node<?> node) {
+        return (node == null ? 0 : node.height);
+    }
+
+    private static int size(@Nullable final Node<?> node) {
+        return (node == null ? 0 : node.size);
+    }
+
+    /**
+     * Immutable tree node, shared between every version of the tree which did not touch it.
+     */
+    private static final class Node<T> {
+
+        private final T item;
+        private final Node<T> left;
+        private final Node<T> right;
+        private final int height;
+        private final int size;
+
+        private Node(@NotNull final T item, @Nullable final Node<T> left, @Nullable final Node<T> right) {
+            this.item = item;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    /**
+     * Entry of a single key, referenced by both trees.
+     */
+    private static final class Slot<K, V extends Comparable<V>> {
+
+        private final LeaderboardEntry<K, V> entry;
+        private final long sequence;
+        private final int hash;
+
+        /*
+         * Lazily filled, racing threads may both parse the entry but always store an equal result.
+         */
+        private volatile LeaderboardEntry<String, String> parsed;
+
+        private Slot(@NotNull final LeaderboardEntry<K, V> entry, final long sequence) {
+            this.entry = entry;
+            this.sequence = sequence;
+            this.hash = entry.key().hashCode();
+        }
+    }
+
+    /**
+     * Snapshot which keeps a reference to the roots of both trees at the time it was taken.
+     */
+    private static final class Shared<K, V extends Comparable<V>> extends LeaderboardSnapshot<K, V> {
+
+        private final Node<Slot<K, V>> root;
+        private final Node<Slot<K, V>> index;
+        private final Comparator<Slot<K, V>> order;
+
+        /*
+         * Only materialized when every entry is requested at once.
+         */
+        private volatile List<LeaderboardEntry<K, V>> entries;
+
+        private Shared(@Nullable final Node<Slot<K, V>> root, @Nullable final Node<Slot<K, V>> index, @NotNull final Comparator<Slot<K, V>> order, final long version) {
+            super(version);
+            this.root = root;
+            this.index = index;
+            this.order = order;
+        }
+
+        @Nullable
+        @Override
+        PositionedLeaderboardEntry<String, String> parsed(final int position, @NotNull final Leaderboard<K, V> leaderboard) {
+            Slot<K, V> slot = select(root, position);
+            if (slot == null) return null;
+
+            LeaderboardEntry<String, String> parsed = slot.parsed;
+            if (parsed == null) {
+                parsed = new LeaderboardEntry<>(leaderboard.parseKey(slot.entry.key()), leaderboard.parseValue(slot.entry.value()), slot.entry.comparing());
+                slot.parsed = parsed;
+            }
+
+            return new PositionedLeaderboardEntry<>(parsed.key(), parsed.value(), position);
+        }
+
+        @Nullable
+        @Override
+        public LeaderboardEntry<K, V> get(final int position) {
+            Slot<K, V> slot = select(root, position);
+            return (slot == null ? null : slot.entry);
+        }
+
+        @Override
+        public int position(@NotNull final K key) {
+            Slot<K, V> slot = find(index, key);
+            return (slot == null ? -1 : rank(root, slot, order));
+        }
+
+        @NotNull
+        @Override
+        public List<LeaderboardEntry<K, V>> entries() {
+            List<LeaderboardEntry<K, V>> entries = this.entries;
+            if (entries != null) return entries;
+
+            List<LeaderboardEntry<K, V>> collected = Lists.newArrayListWithCapacity(IndexedLeaderboardStorage.size(root));
+            forEach(root, collected::add);
+
+            entries = Collections.unmodifiableList(collected);
+            this.entries = entries;
+            return entries;
+        }
+
+        @NotNull
+        @Override
+        public List<LeaderboardEntry<K, V>> range(final int from, final int to) {
+            return Collections.unmodifiableList(IndexedLeaderboardStorage.range(root, from, to));
+        }
+
+        @Override
+        public int size() {
+            return IndexedLeaderboardStorage.size(root);
+        }
+    }
+}
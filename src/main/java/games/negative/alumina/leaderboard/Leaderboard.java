@@ -29,17 +29,36 @@ package games.negative.alumina.leaderboard;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import games.negative.alumina.event.Events;
+import games.negative.alumina.leaderboard.event.LeaderboardChangeEvent;
+import games.negative.alumina.logger.Logs;
+import games.negative.alumina.util.Tasks;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collections;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Stream;
 
 /**
  * Represents a sorted leaderboard which can be updated and queried.
+ * <p>
+ * Writes reposition entries in the {@link LeaderboardStorage} and publish a new {@link LeaderboardSnapshot},
+ * while every query reads the latest published snapshot without locking.
+ * <p>
+ * Every published snapshot is compared to the previous one by the writer, and the position changes are handed
+ * to the registered {@link LeaderboardListener}s and called as a {@link LeaderboardChangeEvent}.
  * @param <K> Key type which can be used for identification, such as {@link java.util.UUID}!
  * @param <V> Value type which can be used for sorting, such as {@link java.lang.Integer}!
  */
@@ -49,8 +68,36 @@ public abstract class Leaderboard<K, V extends Comparable<V>> {
     public static final Comparator<LeaderboardEntry> HIGHEST_TO_LOWEST = Comparator.<LeaderboardEntry, Comparable>comparing(LeaderboardEntry::value).reversed();
     public static final Comparator<LeaderboardEntry> LOWEST_TO_HIGHEST = Comparator.comparing(LeaderboardEntry::value);
 
-    private final List<K> keys = Lists.newArrayList();
-    private List<LeaderboardEntry<K, V>> sorted = Collections.synchronizedList(Lists.newArrayList());
+    /**
+     * Depth up to which position changes are reported unless {@link #setChangeDepth(int)} is called.
+     */
+    public static final int DEFAULT_CHANGE_DEPTH = 10;
+
+    private final Set<K> keys = Sets.newLinkedHashSet();
+    private final boolean bounded;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private LeaderboardStorage<K, V> storage;
+
+    private volatile LeaderboardSnapshot<K, V> snapshot = LeaderboardSnapshot.empty();
+    private volatile long version;
+
+    private final List<LeaderboardListener<K, V>> listeners = Lists.newCopyOnWriteArrayList();
+    private final Object dispatchLock = new Object();
+    private LeaderboardSnapshot<K, V> dispatched = LeaderboardSnapshot.empty();
+    private volatile int changeDepth = DEFAULT_CHANGE_DEPTH;
+
+    /*
+     * Values applied while an asynchronous update is in flight, one map per update, replayed on top of its result.
+     */
+    private final List<Map<K, V>> pending = Lists.newArrayList();
+    private long generation;
+    private long applied;
+
+    private final LeaderboardMetrics metrics = new LeaderboardMetrics();
+
+    private volatile LeaderboardHistogram histogram;
+    private volatile ToDoubleFunction<V> histogramMapper;
 
     private final String name;
 
@@ -62,11 +109,35 @@ public abstract class Leaderboard<K, V extends Comparable<V>> {
      * @param comparing Comparing type of the leaderboard.
      */
     public Leaderboard(@NotNull final String name, @NotNull final LeaderboardComparingType comparing) {
+        this(name, new IndexedLeaderboardStorage<>(comparing));
+    }
+
+    /**
+     * Creates a new leaderboard with the given name and comparing type, which only keeps the best entries.
+     * <p>
+     * Keys offered to a bounded leaderboard are not tracked, only keys given to {@link #update(Collection, boolean)}
+     * with replace are loaded again by a full update, so memory stays bounded.
+     * @param name Name of the leaderboard.
+     * @param comparing Comparing type of the leaderboard.
+     * @param capacity Maximum amount of entries to keep, see {@link BoundedLeaderboardStorage}.
+     */
+    public Leaderboard(@NotNull final String name, @NotNull final LeaderboardComparingType comparing, final int capacity) {
+        this(name, new BoundedLeaderboardStorage<>(comparing, capacity));
+    }
+
+    /**
+     * Creates a new leaderboard with the given name and storage engine.
+     * @param name Name of the leaderboard.
+     * @param storage Storage engine of the leaderboard, the comparing type is taken from it.
+     */
+    public Leaderboard(@NotNull final String name, @NotNull final LeaderboardStorage<K, V> storage) {
         Preconditions.checkNotNull(name, "Name cannot be null!");
-        Preconditions.checkNotNull(comparing, "Comparing cannot be null!");
+        Preconditions.checkNotNull(storage, "Storage cannot be null!");
 
         this.name = name;
-        this.comparing = comparing;
+        this.storage = storage;
+        this.comparing = storage.comparing();
+        this.bounded = storage instanceof BoundedLeaderboardStorage;
     }
 
     /**
@@ -76,6 +147,35 @@ public abstract class Leaderboard<K, V extends Comparable<V>> {
      */
     public abstract V getValue(@NotNull final K key);
 
+    /**
+     * Loads the values of the given keys in bulk.
+     * @param keys Keys to get the values of.
+     * @return Future of the keys and their values, keys which are missing or null are removed from the leaderboard.
+     * @apiNote By default this calls {@link #getValue(Object)} for each key on the {@link #executor()},
+     * override to load every value with a single query instead.
+     */
+    @NotNull
+    public CompletableFuture<Map<K, V>> getValues(@NotNull final Collection<K> keys) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<K, V> values = Maps.newLinkedHashMap();
+            for (K key : keys) {
+                values.put(key, getValue(key));
+            }
+
+            return values;
+        }, executor());
+    }
+
+    /**
+     * Gets the executor used to load and order values off the main thread.
+     * @return Executor of the leaderboard.
+     * @apiNote By default this uses the Bukkit asynchronous scheduler.
+     */
+    @NotNull
+    protected Executor executor() {
+        return Tasks::async;
+    }
+
     /**
      * Parses the key to a string.
      * @param key Key to parse.
@@ -96,27 +196,560 @@ public abstract class Leaderboard<K, V extends Comparable<V>> {
      * Updates the leaderboard without replacing any keys.
      */
     public void update() {
-        update(keys, false);
+        List<K> keys;
+        lock.lock();
+        try {
+            keys = Lists.newArrayList(this.keys);
+        } finally {
+            lock.unlock();
+        }
+
+        update(keys, false, true);
+    }
+
+    /**
+     * Updates the leaderboard with the given keys.
+     * @param keys Keys to update the leaderboard with.
+     * @param replace Whether to replace the current keys with the given keys.
+     */
+    public void update(@NotNull final Collection<K> keys, final boolean replace) {
+        update(keys, replace, false);
     }
 
     /**
      * Updates the leaderboard with the given keys.
      * @param keys Keys to update the leaderboard with.
      * @param replace Whether to replace the current keys with the given keys.
+     * @see #update(Collection, boolean)
      */
     public void update(@NotNull final List<K> keys, final boolean replace) {
-        final List<LeaderboardEntry<K, V>> entries = Lists.newArrayList(sorted);
+        update((Collection<K>) keys, replace);
+    }
 
+    /**
+     * Updates the leaderboard with the given keys.
+     * @param keys Keys to update the leaderboard with.
+     * @param replace Whether to replace the current keys with the given keys.
+     * @param full Whether the keys are every tracked key, in which case the histogram of a bounded leaderboard is rebuilt.
+     */
+    private void update(@NotNull final Collection<K> keys, final boolean replace, final boolean full) {
+        Preconditions.checkNotNull(keys, "Keys cannot be null!");
+
+        long start = System.nanoTime();
+
+        final Map<K, V> values = Maps.newLinkedHashMap();
         for (K key : keys) {
-            entries.removeIf(e -> e.key().equals(key));
-            entries.add(new LeaderboardEntry<>(key, getValue(key), comparing));
+            values.put(key, getValue(key));
+        }
+
+        int changed;
+        lock.lock();
+        try {
+            changed = apply(values);
+            if (changed > 0) version++;
+
+            // Keys outside of a bounded storage are only counted in the histogram by full updates.
+            if (full && bounded) recount(values);
+
+            if (replace)
+                this.keys.addAll(keys);
+
+            publish();
+        } finally {
+            lock.unlock();
+        }
+
+        metrics.record(System.nanoTime() - start, changed, values.size());
+        dispatch();
+    }
+
+    /**
+     * Updates the leaderboard asynchronously, loading every value through {@link #getValues(Collection)}.
+     * <p>
+     * The new ordering is built off the main thread and replaces the current one at once, so readers
+     * never wait for the load or see a partially built leaderboard. Entries which are on the leaderboard
+     * but not tracked, such as keys updated without replacing the tracked keys, are carried over as they are.
+     * <p>
+     * If an update which started later completes first, the result of this one is outdated and discarded.
+     * @return Future which completes once the new ordering is in place, or was discarded.
+     */
+    @NotNull
+    public CompletableFuture<Void> updateAsync() {
+        final long start = System.nanoTime();
+        final List<K> keys;
+        final LeaderboardStorage<K, V> fresh;
+        final Map<K, V> replay = Maps.newLinkedHashMap();
+        final long generation;
+        lock.lock();
+        try {
+            keys = Lists.newArrayList(this.keys);
+            fresh = storage.emptyCopy();
+            generation = ++this.generation;
+
+            pending.add(replay);
+        } finally {
+            lock.unlock();
+        }
+
+        CompletableFuture<Map<K, V>> values;
+        try {
+            values = getValues(keys);
+        } catch (Exception e) {
+            values = CompletableFuture.failedFuture(e);
+        }
+
+        final Set<K> requested = Sets.newHashSet(keys);
+        return values.thenAcceptAsync(loaded -> {
+            Map<K, V> present = Maps.newLinkedHashMap();
+            for (Map.Entry<K, V> entry : loaded.entrySet()) {
+                if (entry.getValue() != null) present.put(entry.getKey(), entry.getValue());
+            }
+
+            // Entries which were not part of the load are untracked, writes made since are replayed below.
+            LeaderboardSnapshot<K, V> current = this.snapshot;
+            for (LeaderboardEntry<K, V> entry : current.entries()) {
+                if (!requested.contains(entry.key())) present.put(entry.key(), entry.value());
+            }
+
+            fresh.putAll(present);
+
+            int changed = changes(current, fresh.snapshot(0));
+
+            LeaderboardHistogram sketch = this.histogram;
+            ToDoubleFunction<V> mapper = this.histogramMapper;
+            LeaderboardHistogram built = (sketch == null ? null : sketch.emptyCopy());
+            if (built != null) {
+                for (V value : present.values())
+                    built.add(mapper.applyAsDouble(value));
+            }
+
+            lock.lock();
+            try {
+                // An update which started later already replaced the storage.
+                if (generation < applied) return;
+
+                applied = generation;
+                for (Map.Entry<K, V> entry : replay.entrySet()) {
+                    V previous = (entry.getValue() == null ? fresh.remove(entry.getKey()) : fresh.put(entry.getKey(), entry.getValue()));
+
+                    if (built != null) track(built, mapper, entry.getKey(), previous, entry.getValue(), fresh);
+                }
+
+                // Only replace the histogram if no other one was attached during the load.
+                if (built != null && this.histogram == sketch)
+                    sketch.set(built);
+
+                storage = fresh;
+                version++;
+
+                publish();
+            } finally {
+                lock.unlock();
+            }
+
+            metrics.record(System.nanoTime() - start, changed, loaded.size());
+            dispatch();
+        }, executor()).whenComplete((ignored, throwable) -> {
+            lock.lock();
+            try {
+                pending.remove(replay);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Offers a new value for the given key, repositioning only that entry.
+     * @param key Key to offer the value for.
+     * @param value New value of the key.
+     */
+    public void offer(@NotNull final K key, @NotNull final V value) {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+        Preconditions.checkNotNull(value, "Value cannot be null!");
+
+        lock.lock();
+        try {
+            if (!bounded) keys.add(key);
+
+            V previous = storage.put(key, value);
+            track(key, previous, value);
+
+            if (!value.equals(previous)) version++;
+
+            for (Map<K, V> replay : pending)
+                replay.put(key, value);
+
+            publish();
+        } finally {
+            lock.unlock();
+        }
+
+        dispatch();
+    }
+
+    /**
+     * Offers new values for the given keys, merging them into the existing ordering.
+     * @param values Keys and their new values, a null value removes the key from the leaderboard.
+     */
+    public void offerAll(@NotNull final Map<K, V> values) {
+        Preconditions.checkNotNull(values, "Values cannot be null!");
+
+        lock.lock();
+        try {
+            if (!bounded) keys.addAll(values.keySet());
+            if (apply(values) > 0) version++;
+
+            publish();
+        } finally {
+            lock.unlock();
+        }
+
+        dispatch();
+    }
+
+    /**
+     * Removes the given key from the leaderboard.
+     * @param key Key to remove.
+     * @return Whether the key was present in the leaderboard.
+     */
+    public boolean remove(@NotNull final K key) {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+
+        lock.lock();
+        try {
+            keys.remove(key);
+
+            for (Map<K, V> replay : pending)
+                replay.put(key, null);
+
+            V removed = storage.remove(key);
+            if (removed == null) return false;
+
+            track(key, removed, null);
+
+            version++;
+
+            publish();
+        } finally {
+            lock.unlock();
+        }
+
+        dispatch();
+        return true;
+    }
+
+    /**
+     * Applies the given values to the storage, must be called while holding the lock.
+     * @param values Keys and their new values, a null value removes the key.
+     * @return The amount of entries which were added, changed or removed.
+     */
+    private int apply(@NotNull final Map<K, V> values) {
+        for (Map<K, V> replay : pending)
+            replay.putAll(values);
+
+        int changed = 0;
+
+        Map<K, V> present = Maps.newLinkedHashMap();
+        for (Map.Entry<K, V> entry : values.entrySet()) {
+            if (entry.getValue() != null) {
+                present.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+
+            V removed = storage.remove(entry.getKey());
+            if (removed == null) continue;
+
+            changed++;
+            track(entry.getKey(), removed, null);
+        }
+
+        // The previous values are only needed to move them in the histogram.
+        Map<K, V> previous = null;
+        if (histogram != null) {
+            previous = Maps.newHashMapWithExpectedSize(present.size());
+            for (K key : present.keySet())
+                previous.put(key, storage.value(key));
+        }
+
+        changed += storage.putAll(present);
+
+        if (previous != null) {
+            for (Map.Entry<K, V> entry : present.entrySet())
+                track(entry.getKey(), previous.get(entry.getKey()), entry.getValue());
+        }
+
+        return changed;
+    }
+
+    /**
+     * Counts the entries which were added, changed or removed between two snapshots.
+     */
+    private static <K, V extends Comparable<V>> int changes(@NotNull final LeaderboardSnapshot<K, V> previous, @NotNull final LeaderboardSnapshot<K, V> current) {
+        int changed = 0;
+        for (LeaderboardEntry<K, V> entry : current.entries()) {
+            int position = previous.position(entry.key());
+            if (position == -1 || !previous.get(position).value().equals(entry.value())) changed++;
+        }
+
+        for (LeaderboardEntry<K, V> entry : previous.entries()) {
+            if (current.position(entry.key()) == -1) changed++;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Moves the value of a key in the histogram, must be called while holding the lock.
+     * @param key Key whose value changed.
+     * @param previous Value the storage held for the key before the change, or null if it held none.
+     * @param current New value of the key, or null if it was removed.
+     */
+    private void track(@NotNull final K key, @Nullable final V previous, @Nullable final V current) {
+        LeaderboardHistogram histogram = this.histogram;
+        if (histogram == null) return;
+
+        track(histogram, histogramMapper, key, previous, current, storage);
+    }
+
+    /**
+     * Moves the value of a key in the given histogram.
+     * <p>
+     * A bounded storage holds no value for the keys outside of it, so their previous value is unknown. Those keys
+     * are only counted once they enter the storage, the others are counted again by the next full update.
+     */
+    private void track(@NotNull final LeaderboardHistogram histogram, @NotNull final ToDoubleFunction<V> mapper, @NotNull final K key, @Nullable final V previous, @Nullable final V current, @NotNull final LeaderboardStorage<K, V> storage) {
+        if (current != null && (previous != null || !bounded || storage.value(key) != null))
+            histogram.add(mapper.applyAsDouble(current));
+
+        if (previous != null) histogram.remove(mapper.applyAsDouble(previous));
+    }
+
+    /**
+     * Rebuilds the histogram from the values of a full update and the entries which were not part of it,
+     * must be called while holding the lock.
+     */
+    private void recount(@NotNull final Map<K, V> values) {
+        LeaderboardHistogram histogram = this.histogram;
+        if (histogram == null) return;
+
+        ToDoubleFunction<V> mapper = histogramMapper;
+        LeaderboardHistogram built = histogram.emptyCopy();
+        for (V value : values.values()) {
+            if (value != null) built.add(mapper.applyAsDouble(value));
+        }
+
+        storage.forEach(entry -> {
+            if (!values.containsKey(entry.key())) built.add(mapper.applyAsDouble(entry.value()));
+        });
+
+        histogram.set(built);
+    }
+
+    /**
+     * Attaches a histogram which is kept up to date alongside the entries, used to estimate
+     * ranks and percentiles without walking the leaderboard.
+     * <p>
+     * The histogram is filled with the current entries. For leaderboards which only keep the best entries
+     * the values outside of the kept entries are only counted by full updates, so between full updates the
+     * histogram only follows the changes of the kept entries.
+     * @param histogram Histogram to maintain, its current values are replaced.
+     * @param mapper Function to convert a value to a number.
+     */
+    public void attachHistogram(@NotNull final LeaderboardHistogram histogram, @NotNull final ToDoubleFunction<V> mapper) {
+        Preconditions.checkNotNull(histogram, "Histogram cannot be null!");
+        Preconditions.checkNotNull(mapper, "Mapper cannot be null!");
+
+        lock.lock();
+        try {
+            LeaderboardHistogram built = histogram.emptyCopy();
+            storage.forEach(entry -> built.add(mapper.applyAsDouble(entry.value())));
+            histogram.set(built);
+
+            this.histogramMapper = mapper;
+            this.histogram = histogram;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the measurements of the updates of the leaderboard.
+     * @return Metrics of the leaderboard.
+     */
+    @NotNull
+    public LeaderboardMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the histogram attached to the leaderboard.
+     * @return Attached histogram, or null if none is attached.
+     */
+    @Nullable
+    public LeaderboardHistogram histogram() {
+        return histogram;
+    }
+
+    /**
+     * Estimates the position the given value would have on the leaderboard.
+     * @param value Value to estimate the position of.
+     * @return Estimated position, starting at 1.
+     * @throws IllegalStateException If no histogram is attached.
+     */
+    public long estimatedRank(@NotNull final V value) {
+        Preconditions.checkNotNull(value, "Value cannot be null!");
+
+        LeaderboardHistogram histogram = this.histogram;
+        Preconditions.checkState(histogram != null, "Leaderboard has no histogram attached!");
+
+        return histogram.rank(histogramMapper.applyAsDouble(value), comparing);
+    }
+
+    /**
+     * Estimates the percentage of entries ranked at or above the given key, such as 3.2 for the top 3.2%.
+     * @param key Key to estimate the percentile of.
+     * @return Estimated percentile, or empty if the key is not on the leaderboard.
+     * @throws IllegalStateException If no histogram is attached.
+     */
+    @NotNull
+    public OptionalDouble percentile(@NotNull final K key) {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+
+        LeaderboardHistogram histogram = this.histogram;
+        Preconditions.checkState(histogram != null, "Leaderboard has no histogram attached!");
+
+        LeaderboardSnapshot<K, V> snapshot = snapshot();
+        int position = snapshot.position(key);
+        if (position == -1) return OptionalDouble.empty();
+
+        return OptionalDouble.of(histogram.percentile(histogramMapper.applyAsDouble(snapshot.get(position).value()), comparing));
+    }
+
+    /**
+     * Publishes a snapshot of the storage if it changed since the last one, must be called while holding the lock.
+     */
+    private void publish() {
+        if (snapshot.version() == version) return;
+
+        snapshot = storage.snapshot(version);
+    }
+
+    /**
+     * Gets the latest snapshot of the leaderboard.
+     * <p>
+     * This never waits for a writer, if another thread is currently writing to the leaderboard
+     * the previously published snapshot is returned instead.
+     * @return Latest snapshot of the leaderboard.
+     */
+    @NotNull
+    public LeaderboardSnapshot<K, V> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Hands the changes between the last dispatched and the latest snapshot to the listeners.
+     */
+    private void dispatch() {
+        synchronized (dispatchLock) {
+            LeaderboardSnapshot<K, V> previous = this.dispatched;
+            LeaderboardSnapshot<K, V> current = this.snapshot;
+            if (current.version() <= previous.version()) return;
+
+            this.dispatched = current;
+
+            boolean event = LeaderboardChangeEvent.hasListeners();
+            if (listeners.isEmpty() && !event) return;
+
+            List<LeaderboardChange<K, V>> changes = diff(previous, current, changeDepth);
+            if (changes.isEmpty()) return;
+
+            for (LeaderboardListener<K, V> listener : listeners) {
+                try {
+                    listener.onChange(this, changes);
+                } catch (Exception e) {
+                    Logs.severe("Could not handle changes of leaderboard " + name + ". (" + e.getMessage() + ")");
+                }
+            }
+
+            if (event) Events.call(new LeaderboardChangeEvent(this, changes));
+        }
+    }
+
+    /**
+     * Computes the position changes between two snapshots, limited to the given depth.
+     * @param previous Previous snapshot.
+     * @param current New snapshot.
+     * @param depth Only entries which were or are at this position or above are included.
+     * @return Unmodifiable list of changes.
+     */
+    @NotNull
+    private static <K, V extends Comparable<V>> List<LeaderboardChange<K, V>> diff(@NotNull final LeaderboardSnapshot<K, V> previous, @NotNull final LeaderboardSnapshot<K, V> current, final int depth) {
+        List<LeaderboardChange<K, V>> changes = Lists.newArrayList();
+
+        int limit = Math.min(depth, current.size());
+        for (int position = 1; position <= limit; position++) {
+            LeaderboardEntry<K, V> entry = current.get(position);
+
+            int before = previous.position(entry.key());
+            if (before == position) continue;
+
+            changes.add(new LeaderboardChange<>(entry.key(), entry.value(), Math.max(before, 0), position));
         }
 
-        if (replace)
-            this.keys.addAll(keys);
+        limit = Math.min(depth, previous.size());
+        for (int before = 1; before <= limit; before++) {
+            LeaderboardEntry<K, V> entry = previous.get(before);
+
+            int position = current.position(entry.key());
+            if (position != -1 && position <= depth) continue;
+
+            V value = (position == -1 ? entry.value() : current.get(position).value());
+            changes.add(new LeaderboardChange<>(entry.key(), value, before, Math.max(position, 0)));
+        }
 
-        Collections.sort(entries);
-        sorted = Collections.synchronizedList(entries);
+        return List.copyOf(changes);
+    }
+
+    /**
+     * Registers a listener which is called with the position changes of every new snapshot.
+     * @param listener Listener to register.
+     */
+    public void addListener(@NotNull final LeaderboardListener<K, V> listener) {
+        Preconditions.checkNotNull(listener, "Listener cannot be null!");
+
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     * @param listener Listener to unregister.
+     */
+    public void removeListener(@NotNull final LeaderboardListener<K, V> listener) {
+        Preconditions.checkNotNull(listener, "Listener cannot be null!");
+
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the depth up to which position changes are reported, such as 10 to only report changes in the top 10.
+     * <p>
+     * Every entry within the depth which moved is reported, so a new first place reports every entry below it.
+     * Deep boards should keep the depth to the part which is actually displayed.
+     * @param depth Depth to report changes up to, {@link #DEFAULT_CHANGE_DEPTH} by default.
+     */
+    public void setChangeDepth(final int depth) {
+        Preconditions.checkArgument(depth > 0, "Depth must be positive!");
+
+        this.changeDepth = depth;
+    }
+
+    /**
+     * Gets the version of the leaderboard, which changes every time an entry is added, changed or removed.
+     * @return Version of the leaderboard.
+     */
+    public long version() {
+        return version;
     }
 
     /**
@@ -128,7 +761,7 @@ public abstract class Leaderboard<K, V extends Comparable<V>> {
     public Optional<LeaderboardEntry<K, V>> getEntry(@NotNull final Predicate<LeaderboardEntry<K, V>> filter) {
         Preconditions.checkNotNull(filter, "Filter cannot be null!");
 
-        return sorted.stream().filter(filter).findFirst();
+        return snapshot().entries().stream().filter(filter).findFirst();
     }
 
     /**
@@ -138,7 +771,7 @@ public abstract class Leaderboard<K, V extends Comparable<V>> {
      */
     @NotNull
     public List<LeaderboardEntry<K, V>> getEntries(@NotNull final Predicate<LeaderboardEntry<K, V>> filter) {
-        Stream<LeaderboardEntry<K, V>> stream = sorted.stream();
+        Stream<LeaderboardEntry<K, V>> stream = snapshot().entries().stream();
 
         if (filter != null)
             stream = stream.filter(filter);
@@ -155,7 +788,15 @@ public abstract class Leaderboard<K, V extends Comparable<V>> {
     public Optional<LeaderboardEntry<String, String>> getParsedEntry(@NotNull final Predicate<LeaderboardEntry<K, V>> filter) {
         Preconditions.checkNotNull(filter, "Filter cannot be null!");
 
-        return sorted.stream().filter(filter).map(e -> new LeaderboardEntry<>(parseKey(e.key()), parseValue(e.value()), comparing)).findFirst();
+        LeaderboardSnapshot<K, V> snapshot = snapshot();
+        for (int position = 1; position <= snapshot.size(); position++) {
+            if (!filter.apply(snapshot.get(position))) continue;
+
+            PositionedLeaderboardEntry<String, String> parsed = snapshot.parsed(position, this);
+            return Optional.of(new LeaderboardEntry<>(parsed.key(), parsed.value(), comparing));
+        }
+
+        return Optional.empty();
     }
 
     /**
@@ -165,11 +806,17 @@ public abstract class Leaderboard<K, V extends Comparable<V>> {
      */
     @NotNull
     public List<LeaderboardEntry<String, String>> getParsedEntries(@NotNull final Predicate<LeaderboardEntry<K, V>> filter) {
-        Stream<LeaderboardEntry<K, V>> stream = sorted.stream();
-        if (filter != null)
-            stream = stream.filter(filter);
+        LeaderboardSnapshot<K, V> snapshot = snapshot();
+
+        List<LeaderboardEntry<String, String>> entries = Lists.newArrayList();
+        for (int position = 1; position <= snapshot.size(); position++) {
+            if (filter != null && !filter.apply(snapshot.get(position))) continue;
 
-        return stream.map(e -> new LeaderboardEntry<>(parseKey(e.key()), parseValue(e.value()), comparing)).toList();
+            PositionedLeaderboardEntry<String, String> parsed = snapshot.parsed(position, this);
+            entries.add(new LeaderboardEntry<>(parsed.key(), parsed.value(), comparing));
+        }
+
+        return entries;
     }
 
     /**
@@ -179,15 +826,108 @@ public abstract class Leaderboard<K, V extends Comparable<V>> {
      */
     @Nullable
     public PositionedLeaderboardEntry<K, V> getPosition(@NotNull final K key) {
-        int position = 1;
-        for (LeaderboardEntry<K, V> entry : sorted) {
-            if (entry.key().equals(key))
-                return new PositionedLeaderboardEntry<>(entry.key(), entry.value(), position);
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+
+        LeaderboardSnapshot<K, V> snapshot = snapshot();
+        int position = snapshot.position(key);
+        if (position == -1) return null;
+
+        return new PositionedLeaderboardEntry<>(key, snapshot.get(position).value(), position);
+    }
+
+    /**
+     * Computes the position of the given key, even if it is outside of a bounded leaderboard.
+     * <p>
+     * Keys which are present in the leaderboard complete right away, other keys only load their own value
+     * through {@link #getValues(Collection)}. Keys outside of a bounded leaderboard are ranked by the attached
+     * histogram, or placed right behind the kept entries if none is attached. Keys with an equal value share
+     * the best position.
+     * @param key Key to compute the position of.
+     * @return Future of the positioned leaderboard entry, which completes with null if the key has no value.
+     * @see #computeExactPosition(Object)
+     */
+    @NotNull
+    public CompletableFuture<PositionedLeaderboardEntry<K, V>> computePosition(@NotNull final K key) {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
 
-            position++;
+        PositionedLeaderboardEntry<K, V> known = getPosition(key);
+        if (known != null) return CompletableFuture.completedFuture(known);
+
+        return getValues(List.of(key)).thenApply(values -> {
+            V value = values.get(key);
+            if (value == null) return null;
+
+            return new PositionedLeaderboardEntry<>(key, value, rankOf(value));
+        });
+    }
+
+    /**
+     * Computes the exact position of the given key, even if it is outside of a bounded leaderboard.
+     * <p>
+     * Keys which are not present in the leaderboard are ranked against the values of every tracked key, which
+     * are all loaded again through {@link #getValues(Collection)} for every call and not kept afterwards. Prefer
+     * {@link #computePosition(Object)} with an attached histogram unless the exact position is required.
+     * @param key Key to compute the position of.
+     * @return Future of the positioned leaderboard entry, which completes with null if the key has no value.
+     */
+    @NotNull
+    public CompletableFuture<PositionedLeaderboardEntry<K, V>> computeExactPosition(@NotNull final K key) {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+
+        PositionedLeaderboardEntry<K, V> known = getPosition(key);
+        if (known != null) return CompletableFuture.completedFuture(known);
+
+        final List<K> keys;
+        lock.lock();
+        try {
+            keys = Lists.newArrayList(this.keys);
+        } finally {
+            lock.unlock();
         }
 
-        return null;
+        if (!keys.contains(key)) keys.add(key);
+
+        final LeaderboardSnapshot<K, V> snapshot = this.snapshot;
+        return getValues(keys).thenApply(loaded -> {
+            V value = loaded.get(key);
+            if (value == null) return null;
+
+            // Entries which were offered without being tracked are only known by their current value.
+            Map<K, V> values = Maps.newHashMap(loaded);
+            for (LeaderboardEntry<K, V> entry : snapshot.entries())
+                values.putIfAbsent(entry.key(), entry.value());
+
+            Comparator<V> comparator = comparing.comparator();
+            int above = 0;
+            for (Map.Entry<K, V> entry : values.entrySet()) {
+                if (entry.getValue() != null && !entry.getKey().equals(key) && comparator.compare(entry.getValue(), value) < 0) above++;
+            }
+
+            return new PositionedLeaderboardEntry<>(key, value, above + 1);
+        });
+    }
+
+    /**
+     * Gets the position the given value would have, counting every value which is ranked strictly above it.
+     * @param value Value to get the position of.
+     * @return Position of the value, starting at 1, estimated if it is outside of a bounded leaderboard.
+     */
+    private int rankOf(@NotNull final V value) {
+        Comparator<V> comparator = comparing.comparator();
+
+        LeaderboardSnapshot<K, V> snapshot = this.snapshot;
+        int low = 0, high = snapshot.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(snapshot.get(middle + 1).value(), value) < 0) low = middle + 1;
+            else high = middle;
+        }
+
+        LeaderboardHistogram histogram = this.histogram;
+        if (!bounded || low < snapshot.size() || histogram == null) return low + 1;
+
+        long estimated = histogram.rank(histogramMapper.applyAsDouble(value), comparing);
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(low + 1, estimated));
     }
 
     /**
@@ -197,14 +937,9 @@ public abstract class Leaderboard<K, V extends Comparable<V>> {
      */
     @Nullable
     public PositionedLeaderboardEntry<K, V> getSelectedPosition(@NotNull int index) {
-        int position = 1;
-        for (LeaderboardEntry<K, V> entry : sorted) {
-            if (position == index)
-                return new PositionedLeaderboardEntry<>(entry.key(), entry.value(), position);
+        LeaderboardEntry<K, V> entry = snapshot().get(index);
 
-            position++;
-        }
-        return null;
+        return (entry == null ? null : new PositionedLeaderboardEntry<>(entry.key(), entry.value(), index));
     }
 
     /**
@@ -214,18 +949,64 @@ public abstract class Leaderboard<K, V extends Comparable<V>> {
      */
     @Nullable
     public PositionedLeaderboardEntry<String, String> getParsedSelectedPosition(@NotNull int index) {
-        int position = 1;
-        for (LeaderboardEntry<K, V> entry : sorted) {
-            if (position == index)
-                return new PositionedLeaderboardEntry<>(parseKey(entry.key()), parseValue(entry.value()), position);
+        return snapshot().parsed(index, this);
+    }
+
+    /**
+     * Gets the parsed entries between the given positions.
+     * @param from First position to include, starting at 1.
+     * @param to Last position to include.
+     * @return List of parsed positioned leaderboard entries.
+     */
+    @NotNull
+    public List<PositionedLeaderboardEntry<String, String>> getParsedRange(final int from, final int to) {
+        LeaderboardSnapshot<K, V> snapshot = snapshot();
+
+        int start = Math.max(from, 1);
+        int end = Math.min(to, snapshot.size());
 
-            position++;
+        List<PositionedLeaderboardEntry<String, String>> range = Lists.newArrayListWithCapacity(Math.max(end - start + 1, 0));
+        for (int position = start; position <= end; position++) {
+            range.add(snapshot.parsed(position, this));
         }
-        return null;
+
+        return range;
+    }
+
+    /**
+     * Gets the entries between the given positions.
+     * @param from First position to include, starting at 1.
+     * @param to Last position to include.
+     * @return List of positioned leaderboard entries.
+     */
+    @NotNull
+    public List<PositionedLeaderboardEntry<K, V>> getRange(final int from, final int to) {
+        List<LeaderboardEntry<K, V>> entries = snapshot().range(from, to);
+
+        List<PositionedLeaderboardEntry<K, V>> range = Lists.newArrayListWithCapacity(entries.size());
+        int position = Math.max(from, 1);
+        for (LeaderboardEntry<K, V> entry : entries) {
+            range.add(new PositionedLeaderboardEntry<>(entry.key(), entry.value(), position++));
+        }
+
+        return range;
+    }
+
+    /**
+     * Gets the amount of entries in the leaderboard.
+     * @return Amount of entries.
+     */
+    public int size() {
+        return snapshot().size();
     }
 
     @NotNull
     public String name() {
         return this.name;
     }
+
+    @NotNull
+    public LeaderboardComparingType comparing() {
+        return this.comparing;
+    }
 }
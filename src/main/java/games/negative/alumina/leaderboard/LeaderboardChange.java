@@ -0,0 +1,58 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Represents a change of position of a single entry between two snapshots of a {@link Leaderboard}.
+ * @param key Key of the entry.
+ * @param value Value of the entry, or the last known value if the entry left the leaderboard.
+ * @param previousPosition Position before the change, or 0 if the entry was not on the leaderboard.
+ * @param position Position after the change, or 0 if the entry left the leaderboard.
+ * @param <K> Key type which can be used for identification, such as {@link java.util.UUID}!
+ * @param <V> Value type which can be used for sorting, such as {@link java.lang.Integer}!
+ */
+public record LeaderboardChange<K, V extends Comparable<V>>(K key, V value, int previousPosition, int position) {
+
+    public LeaderboardChange {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+        Preconditions.checkNotNull(value, "Value cannot be null!");
+    }
+
+    /**
+     * Gets the kind of change the entry went through.
+     * @return Type of the change.
+     */
+    public LeaderboardChangeType type() {
+        if (previousPosition == 0) return LeaderboardChangeType.ENTERED;
+        if (position == 0) return LeaderboardChangeType.LEFT;
+
+        return LeaderboardChangeType.MOVED;
+    }
+}
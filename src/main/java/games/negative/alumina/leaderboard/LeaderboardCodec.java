@@ -0,0 +1,134 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Represents a binary format for the keys or values of a {@link Leaderboard}, used to persist its snapshots.
+ * @param <T> Type which can be encoded and decoded.
+ */
+public interface LeaderboardCodec<T> {
+
+    LeaderboardCodec<UUID> UNIQUE_ID = new LeaderboardCodec<>() {
+        @Override
+        public void encode(@NotNull DataOutput output, @NotNull UUID value) throws IOException {
+            output.writeLong(value.getMostSignificantBits());
+            output.writeLong(value.getLeastSignificantBits());
+        }
+
+        @NotNull
+        @Override
+        public UUID decode(@NotNull ByteBuffer buffer) {
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+    };
+
+    LeaderboardCodec<String> STRING = new LeaderboardCodec<>() {
+        @Override
+        public void encode(@NotNull DataOutput output, @NotNull String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+
+        @NotNull
+        @Override
+        public String decode(@NotNull ByteBuffer buffer) {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) throw new IllegalArgumentException("Invalid string length " + length);
+
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    LeaderboardCodec<Integer> INTEGER = new LeaderboardCodec<>() {
+        @Override
+        public void encode(@NotNull DataOutput output, @NotNull Integer value) throws IOException {
+            output.writeInt(value);
+        }
+
+        @NotNull
+        @Override
+        public Integer decode(@NotNull ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    LeaderboardCodec<Long> LONG = new LeaderboardCodec<>() {
+        @Override
+        public void encode(@NotNull DataOutput output, @NotNull Long value) throws IOException {
+            output.writeLong(value);
+        }
+
+        @NotNull
+        @Override
+        public Long decode(@NotNull ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    LeaderboardCodec<Double> DOUBLE = new LeaderboardCodec<>() {
+        @Override
+        public void encode(@NotNull DataOutput output, @NotNull Double value) throws IOException {
+            output.writeDouble(value);
+        }
+
+        @NotNull
+        @Override
+        public Double decode(@NotNull ByteBuffer buffer) {
+            return buffer.getDouble();
+        }
+    };
+
+    /**
+     * Writes the given value to the output.
+     * @param output Output to write to.
+     * @param value Value to write.
+     * @throws IOException if the value could not be written.
+     */
+    void encode(@NotNull DataOutput output, @NotNull T value) throws IOException;
+
+    /**
+     * Reads a value from the buffer, advancing its position past the value.
+     * @param buffer Buffer to read from.
+     * @return The read value.
+     * @throws IllegalArgumentException if the buffer does not hold a valid value.
+     */
+    @NotNull
+    T decode(@NotNull ByteBuffer buffer);
+
+}
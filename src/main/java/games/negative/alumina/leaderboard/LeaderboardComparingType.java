@@ -30,6 +30,7 @@ import com.google.common.base.Preconditions;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Optional;
 
 public enum LeaderboardComparingType {
@@ -53,4 +54,14 @@ public enum LeaderboardComparingType {
                 .findFirst();
     }
 
+    /**
+     * Gets a comparator which orders values according to this comparing type.
+     * @return Comparator of this comparing type.
+     * @param <V> Value type to compare.
+     */
+    @NotNull
+    public <V extends Comparable<V>> Comparator<V> comparator() {
+        return (this == HIGHEST_TO_LOWEST ? Comparator.reverseOrder() : Comparator.naturalOrder());
+    }
+
 }
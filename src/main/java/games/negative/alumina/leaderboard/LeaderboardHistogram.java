@@ -0,0 +1,208 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Represents a fixed-bin histogram of leaderboard values, used to estimate ranks and percentiles.
+ * <p>
+ * Memory and query time only depend on the amount of bins, not on the amount of values. Values outside
+ * of the range are counted in the first or last bin. Histograms with the same range and bins can be
+ * filled on different threads and merged afterwards.
+ * <p>
+ * Replacing the values with {@link #set(LeaderboardHistogram)} swaps them in at once, so a query never
+ * sees a mix of the old and the new values.
+ */
+public class LeaderboardHistogram {
+
+    private final double minimum;
+    private final double maximum;
+    private final double width;
+
+    private final int bins;
+    private volatile Counts counts;
+
+    /**
+     * Creates a new, empty histogram.
+     * @param minimum Lowest value of the range.
+     * @param maximum Highest value of the range.
+     * @param bins Amount of bins to split the range into.
+     */
+    public LeaderboardHistogram(final double minimum, final double maximum, final int bins) {
+        Preconditions.checkArgument(maximum > minimum, "Maximum must be greater than the minimum!");
+        Preconditions.checkArgument(bins > 0, "Bins must be positive!");
+
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.width = (maximum - minimum) / bins;
+        this.bins = bins;
+        this.counts = new Counts(new AtomicLongArray(bins), new AtomicLong());
+    }
+
+    /**
+     * Adds a value to the histogram.
+     * @param value Value to add.
+     */
+    public void add(final double value) {
+        Counts counts = this.counts;
+        counts.bins.incrementAndGet(bin(value));
+        counts.total.incrementAndGet();
+    }
+
+    /**
+     * Removes a value which was previously added to the histogram.
+     * @param value Value to remove.
+     */
+    public void remove(final double value) {
+        Counts counts = this.counts;
+        counts.bins.decrementAndGet(bin(value));
+        counts.total.decrementAndGet();
+    }
+
+    /**
+     * Adds every value of the given histogram to this histogram.
+     * @param other Histogram to merge, which must have the same range and bins.
+     */
+    public void merge(@NotNull final LeaderboardHistogram other) {
+        checkCompatible(other);
+
+        Counts counts = this.counts;
+        Counts added = other.counts;
+        for (int i = 0; i < bins; i++) {
+            counts.bins.addAndGet(i, added.bins.get(i));
+        }
+
+        counts.total.addAndGet(added.total.get());
+    }
+
+    /**
+     * Replaces every value of this histogram with the values of the given histogram.
+     * @param other Histogram to copy, which must have the same range and bins.
+     */
+    public void set(@NotNull final LeaderboardHistogram other) {
+        checkCompatible(other);
+
+        Counts copied = other.counts;
+        long[] values = new long[bins];
+        for (int i = 0; i < bins; i++) {
+            values[i] = copied.bins.get(i);
+        }
+
+        this.counts = new Counts(new AtomicLongArray(values), new AtomicLong(copied.total.get()));
+    }
+
+    /**
+     * Creates a new, empty histogram with the same range and bins.
+     * @return Empty histogram.
+     */
+    @NotNull
+    public LeaderboardHistogram emptyCopy() {
+        return new LeaderboardHistogram(minimum, maximum, bins);
+    }
+
+    /**
+     * Estimates the position a value would have on the leaderboard.
+     * @param value Value to estimate the position of.
+     * @param comparing Comparing type of the leaderboard.
+     * @return Estimated position, starting at 1.
+     */
+    public long rank(final double value, @NotNull final LeaderboardComparingType comparing) {
+        Preconditions.checkNotNull(comparing, "Comparing cannot be null!");
+
+        Counts counts = this.counts;
+        int bin = bin(value);
+        boolean descending = comparing == LeaderboardComparingType.HIGHEST_TO_LOWEST;
+
+        double ahead = 0;
+        if (descending) {
+            for (int i = bin + 1; i < bins; i++)
+                ahead += counts.bins.get(i);
+        } else {
+            for (int i = 0; i < bin; i++)
+                ahead += counts.bins.get(i);
+        }
+
+        // Assume the values inside the bin of the value are spread evenly.
+        double offset = Math.min(Math.max((value - (minimum + bin * width)) / width, 0), 1);
+        ahead += counts.bins.get(bin) * (descending ? 1 - offset : offset);
+
+        return (long) ahead + 1;
+    }
+
+    /**
+     * Estimates the percentage of values which are ranked at or above the given value, such as 3.2 for the top 3.2%.
+     * @param value Value to estimate the percentile of.
+     * @param comparing Comparing type of the leaderboard.
+     * @return Estimated percentile between 0 and 100.
+     */
+    public double percentile(final double value, @NotNull final LeaderboardComparingType comparing) {
+        long count = counts.total.get();
+        if (count <= 0) return 0;
+
+        return Math.min(100, (rank(value, comparing) * 100D) / count);
+    }
+
+    /**
+     * Gets the amount of values in the histogram.
+     * @return Amount of values.
+     */
+    public long count() {
+        return counts.total.get();
+    }
+
+    private int bin(final double value) {
+        if (Double.isNaN(value) || value <= minimum) return 0;
+        if (value >= maximum) return bins - 1;
+
+        return Math.min((int) ((value - minimum) / width), bins - 1);
+    }
+
+    private void checkCompatible(@NotNull final LeaderboardHistogram other) {
+        Preconditions.checkNotNull(other, "Histogram cannot be null!");
+        Preconditions.checkArgument(other.minimum == minimum && other.maximum == maximum && other.bins == bins, "Histograms must have the same range and bins!");
+    }
+
+    /**
+     * Counts of every bin and their total, replaced as a whole.
+     */
+    private static final class Counts {
+
+        private final AtomicLongArray bins;
+        private final AtomicLong total;
+
+        private Counts(@NotNull final AtomicLongArray bins, @NotNull final AtomicLong total) {
+            this.bins = bins;
+            this.total = total;
+        }
+    }
+}
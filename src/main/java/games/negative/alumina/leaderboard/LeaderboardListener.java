@@ -0,0 +1,49 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Functional Interface for listening to position changes of a {@link Leaderboard}.
+ * @param <K> Key type which can be used for identification, such as {@link java.util.UUID}!
+ * @param <V> Value type which can be used for sorting, such as {@link java.lang.Integer}!
+ */
+@FunctionalInterface
+public interface LeaderboardListener<K, V extends Comparable<V>> {
+
+    /**
+     * Called after a new snapshot was published, on the thread which published it.
+     * @param leaderboard Leaderboard which changed.
+     * @param changes Changes between the previous and the new snapshot, never empty.
+     */
+    void onChange(@NotNull Leaderboard<K, V> leaderboard, @NotNull List<LeaderboardChange<K, V>> changes);
+
+}
@@ -0,0 +1,287 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Merges several sorted leaderboard shards into one global ranking, such as the leaderboards of
+ * multiple servers or partitions of one leaderboard which were built on different threads.
+ * <p>
+ * Shards can be added from any thread. When a key is present in multiple shards, the value of the
+ * newest shard is kept.
+ * <p>
+ * Shards carry a single timestamp for all of their entries, so "newest" is decided per shard and not
+ * per entry. A shard which was taken later wins every duplicate key, even if its value for that key
+ * was older than the one of another shard, so only merge shards whose values are all refreshed together.
+ * @param <K> Key type which can be used for identification, such as {@link java.util.UUID}!
+ * @param <V> Value type which can be used for sorting, such as {@link java.lang.Integer}!
+ */
+public class LeaderboardMerger<K, V extends Comparable<V>> {
+
+    private final LeaderboardComparingType comparing;
+    private final List<Shard<K, V>> shards = Collections.synchronizedList(Lists.newArrayList());
+
+    /**
+     * Creates a new merger with the given comparing type.
+     * @param comparing Comparing type of the merged ranking.
+     */
+    public LeaderboardMerger(@NotNull final LeaderboardComparingType comparing) {
+        Preconditions.checkNotNull(comparing, "Comparing cannot be null!");
+
+        this.comparing = comparing;
+    }
+
+    /**
+     * Adds the latest snapshot of the given leaderboard as a shard, stamped with the current time.
+     * @param leaderboard Leaderboard to add.
+     * @return This merger.
+     */
+    @NotNull
+    public LeaderboardMerger<K, V> add(@NotNull final Leaderboard<K, V> leaderboard) {
+        Preconditions.checkNotNull(leaderboard, "Leaderboard cannot be null!");
+
+        return add(leaderboard.snapshot(), leaderboard.comparing(), System.currentTimeMillis());
+    }
+
+    /**
+     * Adds a snapshot as a shard.
+     * @param snapshot Snapshot to add.
+     * @param comparing Comparing type the snapshot is sorted by.
+     * @param timestamp Time the values of the snapshot were taken, used to pick the newest value of duplicate keys.
+     * @return This merger.
+     */
+    @NotNull
+    public LeaderboardMerger<K, V> add(@NotNull final LeaderboardSnapshot<K, V> snapshot, @NotNull final LeaderboardComparingType comparing, final long timestamp) {
+        Preconditions.checkNotNull(snapshot, "Snapshot cannot be null!");
+        Preconditions.checkNotNull(comparing, "Comparing cannot be null!");
+
+        shards.add(new Shard<>(snapshot.entries(), comparing, timestamp));
+        return this;
+    }
+
+    /**
+     * Adds a file written by {@link LeaderboardPersistence} as a shard, stamped with its time of saving.
+     * @param file File to add.
+     * @param keyCodec Codec of the keys.
+     * @param valueCodec Codec of the values.
+     * @return This merger.
+     * @throws IOException if the file could not be read or is not a leaderboard file.
+     */
+    @NotNull
+    public LeaderboardMerger<K, V> addFile(@NotNull final File file, @NotNull final LeaderboardCodec<K> keyCodec, @NotNull final LeaderboardCodec<V> valueCodec) throws IOException {
+        Preconditions.checkNotNull(file, "File cannot be null!");
+        Preconditions.checkNotNull(keyCodec, "Key codec cannot be null!");
+        Preconditions.checkNotNull(valueCodec, "Value codec cannot be null!");
+
+        shards.add(LeaderboardPersistence.read(file, keyCodec, valueCodec));
+        return this;
+    }
+
+    /**
+     * Adds every leaderboard file in the given directory as a shard, such as a directory shared by multiple servers.
+     * @param directory Directory to read the ".dat" files of.
+     * @param keyCodec Codec of the keys.
+     * @param valueCodec Codec of the values.
+     * @return The amount of files which were added.
+     * @throws IOException if a file could not be read or is not a leaderboard file.
+     */
+    public int addDirectory(@NotNull final File directory, @NotNull final LeaderboardCodec<K> keyCodec, @NotNull final LeaderboardCodec<V> valueCodec) throws IOException {
+        Preconditions.checkNotNull(directory, "Directory cannot be null!");
+
+        File[] files = directory.listFiles(file -> file.isFile() && file.getName().endsWith(".dat"));
+        if (files == null) throw new IOException("Not a directory: " + directory.getName());
+
+        Arrays.sort(files);
+        for (File file : files) {
+            addFile(file, keyCodec, valueCodec);
+        }
+
+        return files.length;
+    }
+
+    /**
+     * Merges every shard into one ranking.
+     * <p>
+     * Shards are merged k-way, so this takes O(n log k) time for n entries in k shards.
+     * Entries with equal values keep the order of the shards they were added in.
+     * @return Unmodifiable list of the merged entries, in order.
+     */
+    @NotNull
+    public List<LeaderboardEntry<K, V>> merge() {
+        List<Shard<K, V>> shards;
+        synchronized (this.shards) {
+            shards = Lists.newArrayList(this.shards);
+        }
+
+        // Pick the shard with the newest value for every key, later shards win equal timestamps.
+        Map<K, Integer> owners = Maps.newHashMap();
+        int total = 0;
+        for (int i = 0; i < shards.size(); i++) {
+            Shard<K, V> shard = prepare(shards.get(i));
+            shards.set(i, shard);
+            total += shard.entries().size();
+
+            for (LeaderboardEntry<K, V> entry : shard.entries()) {
+                Integer owner = owners.get(entry.key());
+                if (owner == null || shards.get(owner).timestamp() <= shard.timestamp()) owners.put(entry.key(), i);
+            }
+        }
+
+        Comparator<V> values = comparing.comparator();
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(shards.size(), 1), (a, b) -> {
+            int compared = values.compare(shards.get(a[0]).entries().get(a[1]).value(), shards.get(b[0]).entries().get(b[1]).value());
+            return (compared != 0 ? compared : Integer.compare(a[0], b[0]));
+        });
+
+        for (int i = 0; i < shards.size(); i++) {
+            if (!shards.get(i).entries().isEmpty()) heads.add(new int[]{i, 0});
+        }
+
+        List<LeaderboardEntry<K, V>> merged = Lists.newArrayListWithCapacity(Math.min(total, owners.size()));
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<LeaderboardEntry<K, V>> entries = shards.get(head[0]).entries();
+
+            LeaderboardEntry<K, V> entry = entries.get(head[1]);
+            if (owners.get(entry.key()) == head[0])
+                merged.add(entry.comparing() == comparing ? entry : new LeaderboardEntry<>(entry.key(), entry.value(), comparing));
+
+            if (++head[1] < entries.size()) heads.add(head);
+        }
+
+        return Collections.unmodifiableList(merged);
+    }
+
+    /**
+     * Merges every shard and offers the result to the given leaderboard.
+     * @param leaderboard Leaderboard to offer the merged entries to.
+     */
+    public void mergeInto(@NotNull final Leaderboard<K, V> leaderboard) {
+        Preconditions.checkNotNull(leaderboard, "Leaderboard cannot be null!");
+
+        List<LeaderboardEntry<K, V>> merged = merge();
+
+        Map<K, V> values = Maps.newLinkedHashMapWithExpectedSize(merged.size());
+        for (LeaderboardEntry<K, V> entry : merged) {
+            values.put(entry.key(), entry.value());
+        }
+
+        leaderboard.offerAll(values);
+    }
+
+    /**
+     * Gets the amount of shards added to the merger.
+     * @return Amount of shards.
+     */
+    public int shards() {
+        return shards.size();
+    }
+
+    /**
+     * Loads and sorts the given keys in parallel by partitioning them across a fork-join pool.
+     * Every partition becomes a shard of the returned merger, added in the order of the partitions.
+     * @param keys Keys to load.
+     * @param loader Function to load the value of a key, keys with a null value are skipped.
+     * @param comparing Comparing type of the ranking.
+     * @param pool Pool to load and sort the partitions on.
+     * @param partitions Amount of partitions to split the keys into.
+     * @return Future of the merger holding every partition.
+     */
+    @NotNull
+    public static <K, V extends Comparable<V>> CompletableFuture<LeaderboardMerger<K, V>> build(@NotNull final Collection<K> keys, @NotNull final Function<K, V> loader, @NotNull final LeaderboardComparingType comparing, @NotNull final ForkJoinPool pool, final int partitions) {
+        Preconditions.checkNotNull(keys, "Keys cannot be null!");
+        Preconditions.checkNotNull(loader, "Loader cannot be null!");
+        Preconditions.checkNotNull(pool, "Pool cannot be null!");
+        Preconditions.checkArgument(partitions > 0, "Partitions must be positive!");
+
+        LeaderboardMerger<K, V> merger = new LeaderboardMerger<>(comparing);
+
+        List<K> all = Lists.newArrayList(keys);
+        int size = Math.max(1, (all.size() + partitions - 1) / partitions);
+
+        List<CompletableFuture<LeaderboardSnapshot<K, V>>> futures = Lists.newArrayList();
+        for (List<K> partition : Lists.partition(all, size)) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                IndexedLeaderboardStorage<K, V> storage = new IndexedLeaderboardStorage<>(comparing);
+
+                Map<K, V> values = Maps.newLinkedHashMapWithExpectedSize(partition.size());
+                for (K key : partition) {
+                    V value = loader.apply(key);
+                    if (value != null) values.put(key, value);
+                }
+
+                storage.putAll(values);
+                return storage.snapshot(0);
+            }, pool));
+        }
+
+        // Partitions finish in any order, adding them afterwards keeps ties in the order of the keys.
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            for (CompletableFuture<LeaderboardSnapshot<K, V>> future : futures) {
+                merger.add(future.join(), comparing, 0);
+            }
+
+            return merger;
+        });
+    }
+
+    /**
+     * Sorts the entries of a shard which was sorted by another comparing type.
+     */
+    @NotNull
+    private Shard<K, V> prepare(@NotNull final Shard<K, V> shard) {
+        if (shard.comparing() == comparing) return shard;
+
+        List<LeaderboardEntry<K, V>> entries = Lists.newArrayList(shard.entries());
+        entries.sort(Comparator.comparing(LeaderboardEntry::value, comparing.comparator()));
+        return new Shard<>(entries, comparing, shard.timestamp());
+    }
+
+    /**
+     * Sorted entries of one shard with the time their values were taken.
+     */
+    record Shard<K, V extends Comparable<V>>(List<LeaderboardEntry<K, V>> entries, LeaderboardComparingType comparing, long timestamp) {
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Represents the measurements of the updates of a {@link Leaderboard}.
+ * <p>
+ * Durations are kept for the most recent updates only, so the percentiles follow the current load.
+ */
+public final class LeaderboardMetrics {
+
+    private static final int SAMPLES = 128;
+
+    private final long[] durations = new long[SAMPLES];
+    private int recorded;
+
+    private long lastDuration;
+    private int lastChanged;
+    private int lastLoaded;
+
+    private long updates;
+
+    LeaderboardMetrics() {
+    }
+
+    /**
+     * Records a completed update.
+     * @param nanos Duration of the update in nanoseconds.
+     * @param changed Amount of entries which were added, changed or removed.
+     * @param loaded Amount of keys whose values were loaded.
+     */
+    synchronized void record(final long nanos, final int changed, final int loaded) {
+        durations[recorded++ % SAMPLES] = nanos;
+        if (recorded == SAMPLES * 2) recorded = SAMPLES;
+
+        lastDuration = nanos;
+        lastChanged = changed;
+        lastLoaded = loaded;
+        updates++;
+    }
+
+    /**
+     * Gets the duration of the last update.
+     * @return Duration of the last update, or zero if it was never updated.
+     */
+    @NotNull
+    public synchronized Duration lastDuration() {
+        return Duration.ofNanos(lastDuration);
+    }
+
+    /**
+     * Gets the 99th percentile of the durations of the recent updates.
+     * @return 99th percentile duration, or zero if it was never updated.
+     */
+    @NotNull
+    public synchronized Duration p99Duration() {
+        int count = Math.min(recorded, SAMPLES);
+        if (count == 0) return Duration.ZERO;
+
+        long[] sorted = Arrays.copyOf(durations, count);
+        Arrays.sort(sorted);
+        return Duration.ofNanos(sorted[Math.min(count - 1, (int) Math.ceil(count * 0.99) - 1)]);
+    }
+
+    /**
+     * Gets the amount of entries which were added, changed or removed by the last update.
+     * @return Amount of changed entries.
+     */
+    public synchronized int lastChanged() {
+        return lastChanged;
+    }
+
+    /**
+     * Gets the amount of keys whose values were loaded by the last update.
+     * @return Amount of loaded keys.
+     */
+    public synchronized int lastLoaded() {
+        return lastLoaded;
+    }
+
+    /**
+     * Gets the amount of completed updates.
+     * @return Amount of updates.
+     */
+    public synchronized long updates() {
+        return updates;
+    }
+
+    @Override
+    public String toString() {
+        return "LeaderboardMetrics[lastDuration=" + lastDuration() + ", p99Duration=" + p99Duration() + ", lastChanged=" + lastChanged() + ", lastLoaded=" + lastLoaded() + ", updates=" + updates() + "]";
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import games.negative.alumina.AluminaPlugin;
+import games.negative.alumina.logger.Logs;
+import games.negative.alumina.util.Tasks;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists the snapshots of a {@link Leaderboard} to a compact binary file, so it can be populated
+ * immediately after a restart instead of waiting for the first full update.
+ * <p>
+ * Call {@link #load()} when the plugin is enabled and {@link #save()} when it is disabled, optionally
+ * with {@link #schedule(long)} in between. The loaded entries are refreshed by the next update as usual.
+ * @param <K> Key type which can be used for identification, such as {@link java.util.UUID}!
+ * @param <V> Value type which can be used for sorting, such as {@link java.lang.Integer}!
+ */
+public class LeaderboardPersistence<K, V extends Comparable<V>> {
+
+    private static final int MAGIC = 0x414C4244;
+    private static final int FORMAT = 1;
+
+    private final Leaderboard<K, V> leaderboard;
+    private final File file;
+    private final LeaderboardCodec<K> keyCodec;
+    private final LeaderboardCodec<V> valueCodec;
+
+    /**
+     * Creates a new persistence which stores the leaderboard in the "leaderboards" folder of the plugin.
+     * @param leaderboard Leaderboard to persist.
+     * @param keyCodec Codec of the keys.
+     * @param valueCodec Codec of the values.
+     */
+    public LeaderboardPersistence(@NotNull final Leaderboard<K, V> leaderboard, @NotNull final LeaderboardCodec<K> keyCodec, @NotNull final LeaderboardCodec<V> valueCodec) {
+        this(leaderboard, new File(new File(AluminaPlugin.getAluminaInstance().getDataFolder(), "leaderboards"), leaderboard.name() + ".dat"), keyCodec, valueCodec);
+    }
+
+    /**
+     * Creates a new persistence which stores the leaderboard in the given file.
+     * @param leaderboard Leaderboard to persist.
+     * @param file File to store the leaderboard in.
+     * @param keyCodec Codec of the keys.
+     * @param valueCodec Codec of the values.
+     */
+    public LeaderboardPersistence(@NotNull final Leaderboard<K, V> leaderboard, @NotNull final File file, @NotNull final LeaderboardCodec<K> keyCodec, @NotNull final LeaderboardCodec<V> valueCodec) {
+        Preconditions.checkNotNull(leaderboard, "Leaderboard cannot be null!");
+        Preconditions.checkNotNull(file, "File cannot be null!");
+        Preconditions.checkNotNull(keyCodec, "Key codec cannot be null!");
+        Preconditions.checkNotNull(valueCodec, "Value codec cannot be null!");
+
+        this.leaderboard = leaderboard;
+        this.file = file;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+    }
+
+    /**
+     * Writes the latest snapshot of the leaderboard to the file.
+     * <p>
+     * The snapshot is written to a unique temporary file first and moved over the previous one, so a crash
+     * while saving never leaves a corrupt file behind and concurrent saves never write to the same file.
+     * @throws IOException if the file could not be written.
+     */
+    public void save() throws IOException {
+        LeaderboardSnapshot<K, V> snapshot = leaderboard.snapshot();
+
+        Path path = file.toPath();
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+
+        Path temporary = Files.createTempFile(parent, file.getName(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT);
+                output.writeByte(leaderboard.comparing().ordinal());
+                output.writeLong(System.currentTimeMillis());
+                output.writeInt(snapshot.size());
+
+                for (LeaderboardEntry<K, V> entry : snapshot.entries()) {
+                    keyCodec.encode(output, entry.key());
+                    valueCodec.encode(output, entry.value());
+                }
+            }
+
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Memory-maps the file and offers every stored entry to the leaderboard.
+     * @return Whether the file existed and was loaded.
+     * @throws IOException if the file could not be read, is not a leaderboard file or was saved with another comparing type.
+     */
+    public boolean load() throws IOException {
+        if (!file.exists()) return false;
+
+        LeaderboardMerger.Shard<K, V> shard = read(file, keyCodec, valueCodec);
+        if (shard.comparing() != leaderboard.comparing())
+            throw new IOException("Leaderboard file " + file.getName() + " is sorted " + shard.comparing() + " instead of " + leaderboard.comparing());
+
+        Map<K, V> values = Maps.newLinkedHashMapWithExpectedSize(shard.entries().size());
+        for (LeaderboardEntry<K, V> entry : shard.entries()) {
+            values.put(entry.key(), entry.value());
+        }
+
+        leaderboard.offerAll(values);
+        return true;
+    }
+
+    /**
+     * Saves the leaderboard asynchronously at a fixed interval.
+     * @param period Interval in ticks between saves.
+     * @return The BukkitTask representing the scheduled task.
+     */
+    @NotNull
+    public BukkitTask schedule(final long period) {
+        Preconditions.checkArgument(period > 0, "Period must be positive!");
+
+        return Tasks.async(() -> {
+            try {
+                save();
+            } catch (IOException e) {
+                Logs.severe("Could not save leaderboard " + leaderboard.name() + ". (" + e.getMessage() + ")");
+            }
+        }, period, period);
+    }
+
+    /**
+     * Memory-maps and reads a leaderboard file.
+     * @param file File to read.
+     * @param keyCodec Codec of the keys.
+     * @param valueCodec Codec of the values.
+     * @return The stored entries in their stored order, with the time of saving.
+     * @throws IOException if the file could not be read or is not a leaderboard file.
+     */
+    @NotNull
+    static <K, V extends Comparable<V>> LeaderboardMerger.Shard<K, V> read(@NotNull final File file, @NotNull final LeaderboardCodec<K> keyCodec, @NotNull final LeaderboardCodec<V> valueCodec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC) throw new IOException("Not a leaderboard file: " + file.getName());
+
+            int format = buffer.getInt();
+            if (format != FORMAT) throw new IOException("Unsupported leaderboard file format " + format + ": " + file.getName());
+
+            LeaderboardComparingType[] types = LeaderboardComparingType.values();
+            int ordinal = buffer.get();
+            if (ordinal < 0 || ordinal >= types.length) throw new IOException("Unknown comparing type " + ordinal + ": " + file.getName());
+
+            LeaderboardComparingType comparing = types[ordinal];
+            long savedAt = buffer.getLong();
+
+            int size = buffer.getInt();
+            if (size < 0 || size > buffer.remaining()) throw new IOException("Invalid entry count " + size + ": " + file.getName());
+
+            List<LeaderboardEntry<K, V>> entries = Lists.newArrayListWithCapacity(size);
+            for (int i = 0; i < size; i++) {
+                K key = keyCodec.decode(buffer);
+                entries.add(new LeaderboardEntry<>(key, valueCodec.decode(buffer), comparing));
+            }
+
+            return new LeaderboardMerger.Shard<>(entries, comparing, savedAt);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated leaderboard file: " + file.getName(), e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt leaderboard file: " + file.getName() + " (" + e.getMessage() + ")", e);
+        }
+    }
+
+    /**
+     * Gets the file the leaderboard is stored in.
+     * @return File of the leaderboard.
+     */
+    @NotNull
+    public File file() {
+        return file;
+    }
+}
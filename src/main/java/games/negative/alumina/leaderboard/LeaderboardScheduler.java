@@ -0,0 +1,196 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import games.negative.alumina.logger.Logs;
+import games.negative.alumina.util.Tasks;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Schedules the updates of multiple leaderboards with a period which adapts to how long they take.
+ * <p>
+ * The next update of a leaderboard is only scheduled once the previous one completed, so updates of
+ * the same leaderboard never overlap and a slow update delays the next one instead of stacking up.
+ * The period of every leaderboard is its last update duration multiplied by the given factor,
+ * kept between the minimum and maximum period.
+ * <p>
+ * Updates run {@link Leaderboard#update()} on the main thread unless the scheduler is asynchronous,
+ * in which case {@link Leaderboard#updateAsync()} is used and values are loaded off the main thread.
+ */
+public class LeaderboardScheduler {
+
+    private static final long MILLIS_PER_TICK = 50;
+
+    private final long minimumPeriod;
+    private final long maximumPeriod;
+    private final double factor;
+    private final boolean async;
+
+    private final Map<Leaderboard<?, ?>, Scheduled> scheduled = Maps.newConcurrentMap();
+
+    /**
+     * Creates a new scheduler.
+     * @param minimumPeriod Minimum interval in ticks between updates of a leaderboard.
+     * @param maximumPeriod Maximum interval in ticks between updates of a leaderboard.
+     * @param factor Multiplier of the last update duration used as the interval, such as 10 to spend at most 10% of the time updating.
+     */
+    public LeaderboardScheduler(final long minimumPeriod, final long maximumPeriod, final double factor) {
+        this(minimumPeriod, maximumPeriod, factor, false);
+    }
+
+    /**
+     * Creates a new scheduler.
+     * @param minimumPeriod Minimum interval in ticks between updates of a leaderboard.
+     * @param maximumPeriod Maximum interval in ticks between updates of a leaderboard.
+     * @param factor Multiplier of the last update duration used as the interval, such as 10 to spend at most 10% of the time updating.
+     * @param async Whether to update asynchronously, which requires {@link Leaderboard#getValue(Object)} to be thread-safe.
+     */
+    public LeaderboardScheduler(final long minimumPeriod, final long maximumPeriod, final double factor, final boolean async) {
+        Preconditions.checkArgument(minimumPeriod > 0, "Minimum period must be positive!");
+        Preconditions.checkArgument(maximumPeriod >= minimumPeriod, "Maximum period cannot be lower than the minimum period!");
+        Preconditions.checkArgument(factor > 0, "Factor must be positive!");
+
+        this.minimumPeriod = minimumPeriod;
+        this.maximumPeriod = maximumPeriod;
+        this.factor = factor;
+        this.async = async;
+    }
+
+    /**
+     * Starts updating the given leaderboard, beginning after the minimum period.
+     * @param leaderboard Leaderboard to update.
+     */
+    public void schedule(@NotNull final Leaderboard<?, ?> leaderboard) {
+        Preconditions.checkNotNull(leaderboard, "Leaderboard cannot be null!");
+
+        Scheduled entry = new Scheduled(leaderboard);
+        Scheduled previous = scheduled.putIfAbsent(leaderboard, entry);
+        Preconditions.checkState(previous == null, "Leaderboard " + leaderboard.name() + " is already scheduled!");
+
+        entry.next(minimumPeriod);
+    }
+
+    /**
+     * Stops updating the given leaderboard, an update which is in progress still completes.
+     * @param leaderboard Leaderboard to stop updating.
+     * @return Whether the leaderboard was scheduled.
+     */
+    public boolean unschedule(@NotNull final Leaderboard<?, ?> leaderboard) {
+        Preconditions.checkNotNull(leaderboard, "Leaderboard cannot be null!");
+
+        Scheduled entry = scheduled.remove(leaderboard);
+        if (entry == null) return false;
+
+        entry.cancel();
+        return true;
+    }
+
+    /**
+     * Stops updating every leaderboard.
+     */
+    public void shutdown() {
+        for (Leaderboard<?, ?> leaderboard : scheduled.keySet()) {
+            unschedule(leaderboard);
+        }
+    }
+
+    /**
+     * Gets the current interval between updates of the given leaderboard.
+     * @param leaderboard Leaderboard to get the interval of.
+     * @return Interval in ticks, or -1 if the leaderboard is not scheduled.
+     */
+    public long period(@NotNull final Leaderboard<?, ?> leaderboard) {
+        Preconditions.checkNotNull(leaderboard, "Leaderboard cannot be null!");
+
+        Scheduled entry = scheduled.get(leaderboard);
+        return (entry == null ? -1 : entry.period);
+    }
+
+    /**
+     * Computes the interval for the given update duration.
+     */
+    private long adapt(final long millis) {
+        long ticks = (long) Math.ceil((millis * factor) / MILLIS_PER_TICK);
+        return Math.min(maximumPeriod, Math.max(minimumPeriod, ticks));
+    }
+
+    private final class Scheduled {
+
+        private final Leaderboard<?, ?> leaderboard;
+
+        private volatile long period = minimumPeriod;
+        private volatile boolean cancelled;
+        private BukkitTask task;
+
+        private Scheduled(@NotNull final Leaderboard<?, ?> leaderboard) {
+            this.leaderboard = leaderboard;
+        }
+
+        private synchronized void next(final long delay) {
+            if (cancelled) return;
+
+            period = delay;
+            task = (async ? Tasks.async(this::run, delay) : Tasks.run(this::run, delay));
+        }
+
+        private void run() {
+            if (cancelled) return;
+
+            if (async) {
+                leaderboard.updateAsync().whenComplete((ignored, throwable) -> {
+                    if (throwable != null) report(throwable);
+
+                    next(adapt(leaderboard.metrics().lastDuration().toMillis()));
+                });
+                return;
+            }
+
+            try {
+                leaderboard.update();
+            } catch (Exception e) {
+                report(e);
+            }
+
+            next(adapt(leaderboard.metrics().lastDuration().toMillis()));
+        }
+
+        private void report(@NotNull final Throwable throwable) {
+            Logs.severe("Could not update leaderboard " + leaderboard.name() + ". (" + throwable.getMessage() + ")");
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            if (task != null) task.cancel();
+        }
+    }
+}
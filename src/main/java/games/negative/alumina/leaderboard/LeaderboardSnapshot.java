@@ -0,0 +1,216 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents an immutable, ordered view of a {@link Leaderboard} at a specific version.
+ * <p>
+ * Snapshots never change once published, so they can be read from any thread without locking.
+ * Snapshots of an {@link IndexedLeaderboardStorage} share their structure with the storage, so
+ * publishing one costs the same no matter how many entries the leaderboard holds.
+ * <p>
+ * Parsed entries are memoized, so an entry which kept its value is never parsed twice.
+ * @param <K> Key type which can be used for identification, such as {@link java.util.UUID}!
+ * @param <V> Value type which can be used for sorting, such as {@link java.lang.Integer}!
+ */
+public abstract class LeaderboardSnapshot<K, V extends Comparable<V>> {
+
+    private static final LeaderboardSnapshot<?, ?> EMPTY = new Copied<>(new LeaderboardEntry[0], Map.of(), new PositionedLeaderboardEntry[0], 0);
+
+    private final long version;
+
+    LeaderboardSnapshot(final long version) {
+        this.version = version;
+    }
+
+    /**
+     * Creates a snapshot by copying every entry of the given storage.
+     * @param storage Storage to copy the entries of.
+     * @param version Version of the snapshot.
+     * @return Snapshot of the storage.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    static <K, V extends Comparable<V>> LeaderboardSnapshot<K, V> copyOf(@NotNull final LeaderboardStorage<K, V> storage, final long version) {
+        Preconditions.checkNotNull(storage, "Storage cannot be null!");
+
+        final LeaderboardEntry<K, V>[] entries = new LeaderboardEntry[storage.size()];
+        final Map<K, Integer> indexes = Maps.newHashMapWithExpectedSize(entries.length);
+        storage.forEach(entry -> {
+            int index = indexes.size();
+            entries[index] = entry;
+            indexes.put(entry.key(), index);
+        });
+
+        return new Copied<>(entries, indexes, new PositionedLeaderboardEntry[entries.length], version);
+    }
+
+    /**
+     * Gets an empty snapshot.
+     * @return Empty snapshot.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static <K, V extends Comparable<V>> LeaderboardSnapshot<K, V> empty() {
+        return (LeaderboardSnapshot<K, V>) EMPTY;
+    }
+
+    /**
+     * Gets the parsed entry at the given position, parsing it only if it was not parsed before.
+     * @param position Position of the entry, starting at 1.
+     * @param leaderboard Leaderboard to parse the entry with.
+     * @return Parsed entry at the given position, or null if the position is out of bounds.
+     */
+    @Nullable
+    abstract PositionedLeaderboardEntry<String, String> parsed(final int position, @NotNull final Leaderboard<K, V> leaderboard);
+
+    /**
+     * Gets the entry at the given position, starting at 1.
+     * @param position Position of the entry.
+     * @return Entry at the given position, or null if the position is out of bounds.
+     */
+    @Nullable
+    public abstract LeaderboardEntry<K, V> get(final int position);
+
+    /**
+     * Gets the position of the given key, starting at 1.
+     * @param key Key to get the position of.
+     * @return Position of the key, or -1 if the key is not present.
+     */
+    public abstract int position(@NotNull final K key);
+
+    /**
+     * Gets every entry of the snapshot in order.
+     * @return Unmodifiable list of entries.
+     */
+    @NotNull
+    public abstract List<LeaderboardEntry<K, V>> entries();
+
+    /**
+     * Gets the entries between the given positions.
+     * @param from First position to include, starting at 1.
+     * @param to Last position to include.
+     * @return Unmodifiable list of entries.
+     */
+    @NotNull
+    public abstract List<LeaderboardEntry<K, V>> range(final int from, final int to);
+
+    /**
+     * Gets the amount of entries in the snapshot.
+     * @return Amount of entries.
+     */
+    public abstract int size();
+
+    /**
+     * Gets the version of the leaderboard this snapshot was taken at.
+     * @return Version of the snapshot.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Snapshot which holds a copy of every entry, used for storages which cannot share their structure.
+     */
+    private static final class Copied<K, V extends Comparable<V>> extends LeaderboardSnapshot<K, V> {
+
+        private final LeaderboardEntry<K, V>[] entries;
+        private final Map<K, Integer> indexes;
+        private final List<LeaderboardEntry<K, V>> view;
+
+        /*
+         * Lazily filled, racing threads may both parse an entry but always store an equal result.
+         */
+        private final PositionedLeaderboardEntry<String, String>[] parsed;
+
+        private Copied(@NotNull final LeaderboardEntry<K, V>[] entries, @NotNull final Map<K, Integer> indexes, @NotNull final PositionedLeaderboardEntry<String, String>[] parsed, final long version) {
+            super(version);
+            this.entries = entries;
+            this.indexes = indexes;
+            this.parsed = parsed;
+            this.view = Collections.unmodifiableList(Arrays.asList(entries));
+        }
+
+        @Nullable
+        @Override
+        PositionedLeaderboardEntry<String, String> parsed(final int position, @NotNull final Leaderboard<K, V> leaderboard) {
+            if (position < 1 || position > entries.length) return null;
+
+            PositionedLeaderboardEntry<String, String> cached = parsed[position - 1];
+            if (cached != null) return cached;
+
+            LeaderboardEntry<K, V> entry = entries[position - 1];
+            cached = new PositionedLeaderboardEntry<>(leaderboard.parseKey(entry.key()), leaderboard.parseValue(entry.value()), position);
+            parsed[position - 1] = cached;
+            return cached;
+        }
+
+        @Nullable
+        @Override
+        public LeaderboardEntry<K, V> get(final int position) {
+            return (position < 1 || position > entries.length ? null : entries[position - 1]);
+        }
+
+        @Override
+        public int position(@NotNull final K key) {
+            Integer index = indexes.get(key);
+            return (index == null ? -1 : index + 1);
+        }
+
+        @NotNull
+        @Override
+        public List<LeaderboardEntry<K, V>> entries() {
+            return view;
+        }
+
+        @NotNull
+        @Override
+        public List<LeaderboardEntry<K, V>> range(final int from, final int to) {
+            int start = Math.max(from, 1) - 1;
+            int end = Math.min(to, entries.length);
+            if (start >= end) return Collections.emptyList();
+
+            return view.subList(start, end);
+        }
+
+        @Override
+        public int size() {
+            return entries.length;
+        }
+    }
+}
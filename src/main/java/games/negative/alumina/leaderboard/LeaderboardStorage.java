@@ -0,0 +1,152 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Represents the storage engine behind a {@link Leaderboard}, which keeps its entries ordered.
+ * <p>
+ * Implementations are not required to be thread-safe, the owning leaderboard guards all access.
+ * @param <K> Key type which can be used for identification, such as {@link java.util.UUID}!
+ * @param <V> Value type which can be used for sorting, such as {@link java.lang.Integer}!
+ */
+public interface LeaderboardStorage<K, V extends Comparable<V>> {
+
+    /**
+     * Inserts the given key with the given value, repositioning it if it is already present.
+     * @param key Key to insert.
+     * @param value Value of the key.
+     * @return The previous value of the key, or null if the key was not present.
+     */
+    @Nullable
+    V put(@NotNull final K key, @NotNull final V value);
+
+    /**
+     * Inserts every given key with its value, repositioning the keys which are already present.
+     * @param values Keys and values to insert.
+     * @return The amount of keys which were inserted or had their value changed.
+     */
+    default int putAll(@NotNull final Map<K, V> values) {
+        int changed = 0;
+        for (Map.Entry<K, V> entry : values.entrySet()) {
+            V previous = put(entry.getKey(), entry.getValue());
+            if (!entry.getValue().equals(previous)) changed++;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Removes the given key from the storage.
+     * @param key Key to remove.
+     * @return The previous value of the key, or null if the key was not present.
+     */
+    @Nullable
+    V remove(@NotNull final K key);
+
+    /**
+     * Gets the current value of the given key.
+     * @param key Key to get the value of.
+     * @return Value of the key, or null if the key is not present.
+     */
+    @Nullable
+    V value(@NotNull final K key);
+
+    /**
+     * Gets the position of the given key, starting at 1.
+     * @param key Key to get the position of.
+     * @return Position of the key, or -1 if the key is not present.
+     */
+    int position(@NotNull final K key);
+
+    /**
+     * Gets the entry at the given position, starting at 1.
+     * @param position Position of the entry.
+     * @return Entry at the given position, or null if the position is out of bounds.
+     */
+    @Nullable
+    LeaderboardEntry<K, V> entry(final int position);
+
+    /**
+     * Gets the entries between the given positions, starting at 1.
+     * @param from First position to include.
+     * @param to Last position to include.
+     * @return Entries between the given positions in order.
+     */
+    @NotNull
+    List<LeaderboardEntry<K, V>> range(final int from, final int to);
+
+    /**
+     * Visits every entry in order.
+     * @param consumer Consumer to visit the entries with.
+     */
+    void forEach(@NotNull final Consumer<LeaderboardEntry<K, V>> consumer);
+
+    /**
+     * Gets the amount of entries in the storage.
+     * @return Amount of entries.
+     */
+    int size();
+
+    /**
+     * Creates an immutable snapshot of the current entries, which is not affected by later changes.
+     * @param version Version of the snapshot.
+     * @return Snapshot of the storage.
+     * @apiNote By default this copies every entry, storages which can share their structure with
+     * the snapshot should override it.
+     */
+    @NotNull
+    default LeaderboardSnapshot<K, V> snapshot(final long version) {
+        return LeaderboardSnapshot.copyOf(this, version);
+    }
+
+    /**
+     * Removes every entry from the storage.
+     */
+    void clear();
+
+    /**
+     * Creates a new, empty storage with the same configuration as this one.
+     * @return Empty storage.
+     */
+    @NotNull
+    LeaderboardStorage<K, V> emptyCopy();
+
+    /**
+     * Gets the comparing type used to order the entries.
+     * @return Comparing type of the storage.
+     */
+    @NotNull
+    LeaderboardComparingType comparing();
+}
@@ -0,0 +1,110 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.alumina.leaderboard;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents a sorted leaderboard of primitive {@code long} values which can be updated and queried.
+ * <p>
+ * Unlike {@link Leaderboard}, the values are stored as primitives next to the keys and sorted
+ * with primitive comparisons, so no boxed value or entry is kept per key. Entries are only created
+ * when they are queried, see {@link PrimitiveLeaderboard}.
+ * @param <K> Key type which can be used for identification, such as {@link java.util.UUID}!
+ */
+public abstract class LongLeaderboard<K> extends PrimitiveLeaderboard<K, Long> {
+
+    /**
+     * Creates a new leaderboard with the given name and comparing type.
+     * @param name Name of the leaderboard.
+     * @param comparing Comparing type of the leaderboard.
+     */
+    public LongLeaderboard(@NotNull final String name, @NotNull final LeaderboardComparingType comparing) {
+        super(name, comparing);
+    }
+
+    /**
+     * Gets the value of the given key.
+     * @param key Key to get the value of.
+     * @return Value of the given key.
+     */
+    public abstract long getValue(@NotNull final K key);
+
+    /**
+     * Parses the value to a string.
+     * @param value Value to parse.
+     * @return Parsed value.
+     */
+    @NotNull
+    public abstract String parseValue(final long value);
+
+    /**
+     * Offers a new value for the given key, repositioning only that entry.
+     * @param key Key to offer the value for.
+     * @param value New value of the key.
+     */
+    public void offer(@NotNull final K key, final long value) {
+        offerRaw(key, value);
+    }
+
+    /**
+     * Gets the value at the given position without creating an entry.
+     * @param position Position of the value, starting at 1.
+     * @return Value at the given position.
+     * @throws IndexOutOfBoundsException if the position is out of bounds.
+     */
+    public long valueAt(final int position) {
+        return raw(position);
+    }
+
+    @Override
+    final long load(@NotNull final K key) {
+        return getValue(key);
+    }
+
+    @Override
+    final int compare(final long first, final long second) {
+        return Long.compare(first, second);
+    }
+
+    @NotNull
+    @Override
+    final Long box(final long raw) {
+        return raw;
+    }
+
+    @Override
+    final long unbox(@NotNull final Long value) {
+        return value;
+    }
+
+    @NotNull
+    @Override
+    final String parse(final long raw) {
+        return parseValue(raw);
+    }
+}
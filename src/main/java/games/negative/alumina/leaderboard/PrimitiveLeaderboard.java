@@ -0,0 +1,1050 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
+import games.negative.alumina.logger.Logs;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Represents a sorted leaderboard of primitive values, the shared base of {@link LongLeaderboard} and {@link DoubleLeaderboard}.
+ * <p>
+ * Values are stored as raw {@code long} bits in an array next to the keys and compared through the primitive
+ * hooks of the subclass, and keys are indexed by an open-addressing table of positions, so no boxed value or
+ * entry is kept per key. Entries are only created when they are queried.
+ * <p>
+ * A single offer or removal only shifts the entries between the old and the new position of its key and patches
+ * their positions in the table. Batches which change more than a small part of the leaderboard are sorted and
+ * merged into the existing order in a single pass instead.
+ * <p>
+ * Position changes are handed to the registered {@link PrimitiveLeaderboardListener}s after every write.
+ * @param <K> Key type which can be used for identification, such as {@link java.util.UUID}!
+ * @param <V> Boxed type of the primitive values, used for the queried entries.
+ */
+@SuppressWarnings("unchecked")
+public abstract class PrimitiveLeaderboard<K, V extends Comparable<V>> {
+
+    private final Set<K> keys = Sets.newLinkedHashSet();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Board board = new Board(0);
+    private volatile long version;
+
+    private volatile Snapshot snapshot = new Snapshot(board.copy(), 0);
+
+    private final List<PrimitiveLeaderboardListener<K, V>> listeners = Lists.newCopyOnWriteArrayList();
+    private final Queue<List<LeaderboardChange<K, V>>> dispatching = Queues.newConcurrentLinkedQueue();
+    private final Object dispatchLock = new Object();
+    private volatile int changeDepth = Leaderboard.DEFAULT_CHANGE_DEPTH;
+
+    private final String name;
+
+    private final LeaderboardComparingType comparing;
+    private final boolean descending;
+
+    PrimitiveLeaderboard(@NotNull final String name, @NotNull final LeaderboardComparingType comparing) {
+        Preconditions.checkNotNull(name, "Name cannot be null!");
+        Preconditions.checkNotNull(comparing, "Comparing cannot be null!");
+
+        this.name = name;
+        this.comparing = comparing;
+        this.descending = comparing == LeaderboardComparingType.HIGHEST_TO_LOWEST;
+    }
+
+    /**
+     * Loads the value of the given key as raw bits.
+     */
+    abstract long load(@NotNull final K key);
+
+    /**
+     * Compares two raw values in ascending order.
+     */
+    abstract int compare(final long first, final long second);
+
+    /**
+     * Boxes a raw value.
+     */
+    @NotNull
+    abstract V box(final long raw);
+
+    /**
+     * Unboxes a value to raw bits.
+     */
+    abstract long unbox(@NotNull final V value);
+
+    /**
+     * Parses a raw value to a string.
+     */
+    @NotNull
+    abstract String parse(final long raw);
+
+    /**
+     * Parses the key to a string.
+     * @param key Key to parse.
+     * @return Parsed key.
+     */
+    @NotNull
+    public abstract String parseKey(@NotNull final K key);
+
+    /**
+     * Updates the leaderboard without replacing any keys.
+     */
+    public void update() {
+        List<K> keys;
+        lock.readLock().lock();
+        try {
+            keys = Lists.newArrayList(this.keys);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        update(keys, false);
+    }
+
+    /**
+     * Updates the leaderboard with the given keys.
+     * @param keys Keys to update the leaderboard with.
+     * @param replace Whether to replace the current keys with the given keys.
+     */
+    public void update(@NotNull final Collection<K> keys, final boolean replace) {
+        Preconditions.checkNotNull(keys, "Keys cannot be null!");
+
+        Set<K> unique = Sets.newLinkedHashSet(keys);
+        Object[] loadedKeys = unique.toArray();
+        long[] loadedValues = new long[loadedKeys.length];
+        for (int i = 0; i < loadedKeys.length; i++) {
+            loadedValues[i] = load((K) loadedKeys[i]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            write(loadedKeys, loadedValues, Set.of());
+
+            if (replace)
+                this.keys.addAll(keys);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        dispatch();
+    }
+
+    /**
+     * Offers a new raw value for the given key, repositioning only that entry.
+     * @param key Key to offer the value for.
+     * @param raw New raw value of the key.
+     */
+    void offerRaw(@NotNull final K key, final long raw) {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+
+        offerRaw(new Object[]{key}, new long[]{raw}, Set.of());
+    }
+
+    /**
+     * Offers new values for the given keys, merging them into the existing ordering.
+     * @param values Keys and their new values, a null value removes the key from the leaderboard.
+     */
+    public void offerAll(@NotNull final Map<K, V> values) {
+        Preconditions.checkNotNull(values, "Values cannot be null!");
+
+        List<Object> offered = Lists.newArrayListWithCapacity(values.size());
+        long[] raw = new long[values.size()];
+        List<Object> removed = Lists.newArrayList();
+        for (Map.Entry<K, V> entry : values.entrySet()) {
+            if (entry.getValue() == null) {
+                removed.add(entry.getKey());
+                continue;
+            }
+
+            raw[offered.size()] = unbox(entry.getValue());
+            offered.add(entry.getKey());
+        }
+
+        offerRaw(offered.toArray(), Arrays.copyOf(raw, offered.size()), removed);
+    }
+
+    /**
+     * Offers new raw values for the given keys and removes the other given keys in a single write.
+     * @param offeredKeys Keys to insert or reposition, without duplicates.
+     * @param offeredValues Raw values of the keys.
+     * @param removed Keys to remove, which are not part of the offered keys.
+     */
+    void offerRaw(@NotNull final Object[] offeredKeys, @NotNull final long[] offeredValues, @NotNull final Collection<?> removed) {
+        if (offeredKeys.length == 0 && removed.isEmpty()) return;
+
+        lock.writeLock().lock();
+        try {
+            for (Object key : offeredKeys)
+                keys.add((K) key);
+
+            keys.removeAll(removed);
+
+            write(offeredKeys, offeredValues, removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        dispatch();
+    }
+
+    /**
+     * Removes the given key from the leaderboard.
+     * @param key Key to remove.
+     * @return Whether the key was present in the leaderboard.
+     */
+    public boolean remove(@NotNull final K key) {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+
+        boolean removed;
+        lock.writeLock().lock();
+        try {
+            keys.remove(key);
+
+            removed = write(new Object[0], new long[0], Set.of(key));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        dispatch();
+        return removed;
+    }
+
+    /**
+     * Applies the given values to the board and queues the position changes, must be called while holding the write lock.
+     * @param offeredKeys Keys to insert or reposition, without duplicates.
+     * @param offeredValues Raw values of the keys.
+     * @param removed Keys to remove, which are not part of the offered keys.
+     * @return Whether any entry was added, changed or removed.
+     */
+    private boolean write(@NotNull final Object[] offeredKeys, @NotNull final long[] offeredValues, @NotNull final Collection<?> removed) {
+        Board board = this.board;
+
+        int capacity = offeredKeys.length + removed.size();
+        Object[] written = new Object[capacity];
+        long[] raw = new long[capacity];
+        long[] previous = new long[capacity];
+        int[] before = new int[capacity];
+
+        // Keys which kept their value are skipped, so they also keep their place among equal values.
+        int offered = 0;
+        for (int i = 0; i < offeredKeys.length; i++) {
+            int index = board.indexOf(offeredKeys[i]);
+            if (index != -1 && board.values[index] == offeredValues[i]) continue;
+
+            written[offered] = offeredKeys[i];
+            raw[offered] = offeredValues[i];
+            if (index != -1) previous[offered] = board.values[index];
+            before[offered++] = index;
+        }
+
+        int count = offered;
+        for (Object key : removed) {
+            int index = board.indexOf(key);
+            if (index == -1) continue;
+
+            written[count] = key;
+            previous[count] = board.values[index];
+            before[count++] = index;
+        }
+
+        if (count == 0) return false;
+
+        if (count <= Math.max(1, board.size >>> 6)) {
+            for (int i = 0; i < offered; i++)
+                put(board, written[i], raw[i]);
+
+            for (int i = offered; i < count; i++)
+                board.delete(board.indexOf(written[i]));
+        } else {
+            this.board = merge(board, written, raw, offered, count);
+        }
+
+        version++;
+
+        if (!listeners.isEmpty()) {
+            List<LeaderboardChange<K, V>> changes = changes(written, before, previous, count);
+            if (!changes.isEmpty()) dispatching.add(changes);
+        }
+
+        return true;
+    }
+
+    /**
+     * Inserts or repositions a single key, shifting only the entries between its old and new position.
+     */
+    private void put(@NotNull final Board board, @NotNull final Object key, final long raw) {
+        int index = board.indexOf(key);
+        if (index == -1) {
+            board.insert(insertion(board, raw, 0, board.size), key, raw);
+            return;
+        }
+
+        // Entries which kept their value stay ahead of the changed entry with an equal value.
+        int compared = order(raw, board.values[index]);
+        if (compared < 0) board.move(index, insertion(board, raw, 0, index), raw);
+        else if (compared > 0) board.move(index, insertion(board, raw, index + 1, board.size) - 1, raw);
+        else board.values[index] = raw;
+    }
+
+    /**
+     * Finds the first index between the given bounds whose value is ordered after the given value.
+     */
+    private int insertion(@NotNull final Board board, final long raw, int low, int high) {
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (order(board.values[middle], raw) > 0) high = middle;
+            else low = middle + 1;
+        }
+
+        return low;
+    }
+
+    /**
+     * Merges the written keys into a new board, keys which are already present are repositioned.
+     * @param current Board to merge into.
+     * @param written Keys to insert or reposition, followed by the keys to remove.
+     * @param raw Raw values of the keys to insert or reposition.
+     * @param offered Amount of keys to insert or reposition.
+     * @param count Amount of written keys.
+     * @return New board.
+     */
+    @NotNull
+    private Board merge(@NotNull final Board current, @NotNull final Object[] written, @NotNull final long[] raw, final int offered, final int count) {
+        boolean[] replaced = new boolean[current.size];
+        int kept = current.size;
+        for (int i = 0; i < count; i++) {
+            int index = current.indexOf(written[i]);
+            if (index == -1) continue;
+
+            replaced[index] = true;
+            kept--;
+        }
+
+        int[] order = new int[offered];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+
+        sort(order, raw);
+
+        int size = kept + offered;
+        Object[] keys = new Object[size];
+        long[] values = new long[size];
+
+        // Entries which kept their value stay ahead of changed entries with an equal value.
+        int left = 0, right = 0, index = 0;
+        while (index < size) {
+            while (left < replaced.length && replaced[left]) left++;
+
+            boolean old = left < replaced.length && (right == order.length || order(current.values[left], raw[order[right]]) <= 0);
+            if (old) {
+                keys[index] = current.keys[left];
+                values[index++] = current.values[left++];
+            } else {
+                keys[index] = written[order[right]];
+                values[index++] = raw[order[right++]];
+            }
+        }
+
+        return new Board(keys, values, size);
+    }
+
+    /**
+     * Stable merge sort which orders an index permutation by the raw values it points to.
+     */
+    private void sort(@NotNull final int[] order, @NotNull final long[] values) {
+        int[] source = order;
+        int[] target = new int[order.length];
+
+        for (int width = 1; width < order.length; width <<= 1) {
+            for (int start = 0; start < order.length; start += width << 1) {
+                int middle = Math.min(start + width, order.length);
+                int end = Math.min(start + (width << 1), order.length);
+
+                int left = start, right = middle, index = start;
+                while (left < middle && right < end)
+                    target[index++] = (order(values[source[left]], values[source[right]]) <= 0 ? source[left++] : source[right++]);
+
+                while (left < middle) target[index++] = source[left++];
+                while (right < end) target[index++] = source[right++];
+            }
+
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+
+        if (source != order)
+            System.arraycopy(source, 0, order, 0, order.length);
+    }
+
+    /**
+     * Compares two raw values in the order of the leaderboard.
+     */
+    private int order(final long first, final long second) {
+        int compared = compare(first, second);
+        return (descending ? -compared : compared);
+    }
+
+    /**
+     * Computes the position changes of a write up to the change depth, must be called while holding the write lock.
+     * <p>
+     * Keys which were not written keep their order relative to each other, so their previous positions follow
+     * from the positions the written keys had before and have now, without comparing the whole leaderboard.
+     * @param written Written keys.
+     * @param before Index of each written key before the write, or -1 if it was not present.
+     * @param previous Raw value of each written key before the write.
+     * @param count Amount of written keys.
+     * @return Changes ordered by their new position, entries which left the leaderboard last.
+     */
+    @NotNull
+    private List<LeaderboardChange<K, V>> changes(@NotNull final Object[] written, @NotNull final int[] before, @NotNull final long[] previous, final int count) {
+        Board board = this.board;
+        int depth = changeDepth;
+
+        List<LeaderboardChange<K, V>> changes = Lists.newArrayList();
+        int[] vacated = new int[count];
+        int[] occupied = new int[count];
+        int vacatedCount = 0, occupiedCount = 0;
+        for (int i = 0; i < count; i++) {
+            int after = board.indexOf(written[i]);
+            if (before[i] != -1) vacated[vacatedCount++] = before[i];
+            if (after != -1) occupied[occupiedCount++] = after;
+
+            if (before[i] == after || Math.min(before[i] == -1 ? depth : before[i], after == -1 ? depth : after) >= depth) continue;
+
+            V value = box(after == -1 ? previous[i] : board.values[after]);
+            changes.add(new LeaderboardChange<>((K) written[i], value, before[i] + 1, after + 1));
+        }
+
+        Arrays.sort(vacated, 0, vacatedCount);
+        Arrays.sort(occupied, 0, occupiedCount);
+
+        // Walk the other keys in their shared order, skipping the indexes the written keys held before and hold now.
+        int from = 0, to = 0, skippedFrom = 0, skippedTo = 0;
+        while (true) {
+            while (skippedFrom < vacatedCount && vacated[skippedFrom] == from) {
+                from++;
+                skippedFrom++;
+            }
+
+            while (skippedTo < occupiedCount && occupied[skippedTo] == to) {
+                to++;
+                skippedTo++;
+            }
+
+            if (to >= board.size || (from >= depth && to >= depth)) break;
+
+            if (from != to)
+                changes.add(new LeaderboardChange<>((K) board.keys[to], box(board.values[to]), from + 1, to + 1));
+
+            from++;
+            to++;
+        }
+
+        changes.sort(Comparator.comparingInt(change -> (change.position() == 0 ? Integer.MAX_VALUE : change.position())));
+        return List.copyOf(changes);
+    }
+
+    /**
+     * Hands the queued changes to the listeners in the order they were written.
+     */
+    private void dispatch() {
+        if (dispatching.isEmpty()) return;
+
+        synchronized (dispatchLock) {
+            List<LeaderboardChange<K, V>> changes;
+            while ((changes = dispatching.poll()) != null) {
+                for (PrimitiveLeaderboardListener<K, V> listener : listeners) {
+                    try {
+                        listener.onChange(this, changes);
+                    } catch (Exception e) {
+                        Logs.severe("Could not handle changes of leaderboard " + name + ". (" + e.getMessage() + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers a listener which is called with the position changes of every write.
+     * @param listener Listener to register.
+     */
+    public void addListener(@NotNull final PrimitiveLeaderboardListener<K, V> listener) {
+        Preconditions.checkNotNull(listener, "Listener cannot be null!");
+
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     * @param listener Listener to unregister.
+     */
+    public void removeListener(@NotNull final PrimitiveLeaderboardListener<K, V> listener) {
+        Preconditions.checkNotNull(listener, "Listener cannot be null!");
+
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the depth up to which position changes are reported, such as 10 to only report changes in the top 10.
+     * @param depth Depth to report changes up to, {@link Leaderboard#DEFAULT_CHANGE_DEPTH} by default.
+     */
+    public void setChangeDepth(final int depth) {
+        Preconditions.checkArgument(depth > 0, "Depth must be positive!");
+
+        this.changeDepth = depth;
+    }
+
+    /**
+     * Gets an immutable snapshot of the current entries, which is not affected by later changes.
+     * <p>
+     * The entries are copied the first time a snapshot is requested after a change, and the same
+     * snapshot is returned until the next change.
+     * @return Latest snapshot of the leaderboard.
+     */
+    @NotNull
+    public LeaderboardSnapshot<K, V> snapshot() {
+        return current();
+    }
+
+    @NotNull
+    private Snapshot current() {
+        Snapshot snapshot = this.snapshot;
+        if (snapshot.version() == version) return snapshot;
+
+        lock.readLock().lock();
+        try {
+            snapshot = new Snapshot(board.copy(), version);
+            this.snapshot = snapshot;
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @NotNull
+    private LeaderboardEntry<K, V> entry(@NotNull final Board board, final int index) {
+        return new LeaderboardEntry<>((K) board.keys[index], box(board.values[index]), comparing);
+    }
+
+    /**
+     * Gets an entry from the leaderboard using a specialized filter.
+     * @param filter Filter to use.
+     * @return Optional of the entry.
+     */
+    @NotNull
+    public Optional<LeaderboardEntry<K, V>> getEntry(@NotNull final Predicate<LeaderboardEntry<K, V>> filter) {
+        Preconditions.checkNotNull(filter, "Filter cannot be null!");
+
+        Board board = current().board;
+        for (int i = 0; i < board.size; i++) {
+            LeaderboardEntry<K, V> entry = entry(board, i);
+            if (filter.apply(entry)) return Optional.of(entry);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Gets a list of entries from the leaderboard using a specialized filter.
+     * @param filter Filter to use.
+     * @return List of entries.
+     */
+    @NotNull
+    public List<LeaderboardEntry<K, V>> getEntries(@Nullable final Predicate<LeaderboardEntry<K, V>> filter) {
+        Board board = current().board;
+
+        List<LeaderboardEntry<K, V>> entries = Lists.newArrayList();
+        for (int i = 0; i < board.size; i++) {
+            LeaderboardEntry<K, V> entry = entry(board, i);
+            if (filter == null || filter.apply(entry)) entries.add(entry);
+        }
+
+        return entries;
+    }
+
+    /**
+     * Gets a parsed entry from the leaderboard using a specialized filter.
+     * @param filter Filter to use.
+     * @return Optional of the parsed entry.
+     */
+    @NotNull
+    public Optional<LeaderboardEntry<String, String>> getParsedEntry(@NotNull final Predicate<LeaderboardEntry<K, V>> filter) {
+        Preconditions.checkNotNull(filter, "Filter cannot be null!");
+
+        Board board = current().board;
+        for (int i = 0; i < board.size; i++) {
+            if (filter.apply(entry(board, i)))
+                return Optional.of(new LeaderboardEntry<>(parseKey((K) board.keys[i]), parse(board.values[i]), comparing));
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Gets a list of parsed entries from the leaderboard using a specialized filter.
+     * @param filter Filter to use.
+     * @return List of parsed entries.
+     */
+    @NotNull
+    public List<LeaderboardEntry<String, String>> getParsedEntries(@Nullable final Predicate<LeaderboardEntry<K, V>> filter) {
+        Board board = current().board;
+
+        List<LeaderboardEntry<String, String>> entries = Lists.newArrayList();
+        for (int i = 0; i < board.size; i++) {
+            if (filter != null && !filter.apply(entry(board, i))) continue;
+
+            entries.add(new LeaderboardEntry<>(parseKey((K) board.keys[i]), parse(board.values[i]), comparing));
+        }
+
+        return entries;
+    }
+
+    /**
+     * Gets the position and other data of the given key.
+     * @param key Key to get the position of.
+     * @return Positioned leaderboard entry.
+     */
+    @Nullable
+    public PositionedLeaderboardEntry<K, V> getPosition(@NotNull final K key) {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+
+        lock.readLock().lock();
+        try {
+            int index = board.indexOf(key);
+            if (index == -1) return null;
+
+            return new PositionedLeaderboardEntry<>(key, box(board.values[index]), index + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the position and other data of the given key.
+     * @param index Index to get the position of.
+     * @return Positioned leaderboard entry.
+     */
+    @Nullable
+    public PositionedLeaderboardEntry<K, V> getSelectedPosition(final int index) {
+        lock.readLock().lock();
+        try {
+            if (index < 1 || index > board.size) return null;
+
+            return new PositionedLeaderboardEntry<>((K) board.keys[index - 1], box(board.values[index - 1]), index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the position and other data of the given key.
+     * @param index Index to get the position of.
+     * @return Positioned leaderboard entry.
+     */
+    @Nullable
+    public PositionedLeaderboardEntry<String, String> getParsedSelectedPosition(final int index) {
+        K key;
+        long raw;
+        lock.readLock().lock();
+        try {
+            if (index < 1 || index > board.size) return null;
+
+            key = (K) board.keys[index - 1];
+            raw = board.values[index - 1];
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new PositionedLeaderboardEntry<>(parseKey(key), parse(raw), index);
+    }
+
+    /**
+     * Gets the entries between the given positions.
+     * @param from First position to include, starting at 1.
+     * @param to Last position to include.
+     * @return List of positioned leaderboard entries.
+     */
+    @NotNull
+    public List<PositionedLeaderboardEntry<K, V>> getRange(final int from, final int to) {
+        lock.readLock().lock();
+        try {
+            int start = Math.max(from, 1);
+            int end = Math.min(to, board.size);
+
+            List<PositionedLeaderboardEntry<K, V>> range = Lists.newArrayListWithCapacity(Math.max(end - start + 1, 0));
+            for (int position = start; position <= end; position++) {
+                range.add(new PositionedLeaderboardEntry<>((K) board.keys[position - 1], box(board.values[position - 1]), position));
+            }
+
+            return range;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the position of the given key without creating an entry.
+     * @param key Key to get the position of.
+     * @return Position of the key starting at 1, or -1 if the key is not present.
+     */
+    public int position(@NotNull final K key) {
+        lock.readLock().lock();
+        try {
+            int index = board.indexOf(key);
+            return (index == -1 ? -1 : index + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the raw value at the given position.
+     * @param position Position of the value, starting at 1.
+     * @return Raw value at the given position.
+     * @throws IndexOutOfBoundsException if the position is out of bounds.
+     */
+    long raw(final int position) {
+        lock.readLock().lock();
+        try {
+            if (position < 1 || position > board.size)
+                throw new IndexOutOfBoundsException("Position " + position + " is out of bounds for size " + board.size);
+
+            return board.values[position - 1];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the amount of entries in the leaderboard.
+     * @return Amount of entries.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return board.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the version of the leaderboard, which changes every time an entry is added, changed or removed.
+     * @return Version of the leaderboard.
+     */
+    public long version() {
+        return version;
+    }
+
+    @NotNull
+    public String name() {
+        return this.name;
+    }
+
+    @NotNull
+    public LeaderboardComparingType comparing() {
+        return this.comparing;
+    }
+
+    /**
+     * Snapshot which holds a copy of the board, boxing the entries as they are queried.
+     */
+    private final class Snapshot extends LeaderboardSnapshot<K, V> {
+
+        private final Board board;
+        private final List<LeaderboardEntry<K, V>> view;
+
+        private Snapshot(@NotNull final Board board, final long version) {
+            super(version);
+            this.board = board;
+            this.view = new AbstractList<>() {
+                @Override
+                public LeaderboardEntry<K, V> get(final int index) {
+                    Objects.checkIndex(index, board.size);
+                    return entry(board, index);
+                }
+
+                @Override
+                public int size() {
+                    return board.size;
+                }
+            };
+        }
+
+        @Nullable
+        @Override
+        PositionedLeaderboardEntry<String, String> parsed(final int position, @NotNull final Leaderboard<K, V> leaderboard) {
+            if (position < 1 || position > board.size) return null;
+
+            return new PositionedLeaderboardEntry<>(leaderboard.parseKey((K) board.keys[position - 1]), leaderboard.parseValue(box(board.values[position - 1])), position);
+        }
+
+        @Nullable
+        @Override
+        public LeaderboardEntry<K, V> get(final int position) {
+            return (position < 1 || position > board.size ? null : entry(board, position - 1));
+        }
+
+        @Override
+        public int position(@NotNull final K key) {
+            int index = board.indexOf(key);
+            return (index == -1 ? -1 : index + 1);
+        }
+
+        @NotNull
+        @Override
+        public List<LeaderboardEntry<K, V>> entries() {
+            return view;
+        }
+
+        @NotNull
+        @Override
+        public List<LeaderboardEntry<K, V>> range(final int from, final int to) {
+            int start = Math.max(from, 1) - 1;
+            int end = Math.min(to, board.size);
+            if (start >= end) return Collections.emptyList();
+
+            return view.subList(start, end);
+        }
+
+        @Override
+        public int size() {
+            return board.size;
+        }
+    }
+
+    /**
+     * Sorted arrays of keys and values with an open-addressing index, guarded by the lock of the leaderboard.
+     * <p>
+     * Entries which shift by one position have their slot located through the probe sequence of their key and
+     * their old position, so the table never has to be rebuilt for a single move.
+     */
+    private static final class Board {
+
+        private Object[] keys;
+        private long[] values;
+        private int size;
+
+        /*
+         * Position + 1 of the key hashed to each slot, 0 marks an empty slot.
+         */
+        private int[] table;
+        private int shift;
+
+        private Board(final int capacity) {
+            this(new Object[Math.max(capacity, 8)], new long[Math.max(capacity, 8)], 0);
+        }
+
+        private Board(@NotNull final Object[] keys, @NotNull final long[] values, final int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+
+            index(size);
+        }
+
+        private Board(@NotNull final Object[] keys, @NotNull final long[] values, final int size, @NotNull final int[] table, final int shift) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+            this.table = table;
+            this.shift = shift;
+        }
+
+        /**
+         * Copies the board, the copy must never be written to.
+         */
+        @NotNull
+        private Board copy() {
+            return new Board(Arrays.copyOf(keys, size), Arrays.copyOf(values, size), size, table.clone(), shift);
+        }
+
+        private int indexOf(@NotNull final Object key) {
+            int mask = table.length - 1;
+            int slot = slot(key);
+
+            int entry;
+            while ((entry = table[slot]) != 0) {
+                if (keys[entry - 1].equals(key)) return entry - 1;
+
+                slot = (slot + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        /**
+         * Inserts a key at the given index, shifting the entries behind it.
+         */
+        private void insert(final int index, @NotNull final Object key, final long raw) {
+            if (table.length < (size + 1) << 1) index(size + 1);
+
+            if (size == keys.length) {
+                int capacity = Math.max(8, size + (size >> 1));
+                keys = Arrays.copyOf(keys, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+
+            // Patched from the back, so the old position searched for is never held by another key yet.
+            for (int i = size - 1; i >= index; i--)
+                relocate(keys[i + 1], i, i + 1);
+
+            keys[index] = key;
+            values[index] = raw;
+            size++;
+
+            link(key, index);
+        }
+
+        /**
+         * Removes the entry at the given index, shifting the entries behind it.
+         */
+        private void delete(final int index) {
+            unlink(find(keys[index], index));
+
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+
+            for (int i = index; i < size - 1; i++)
+                relocate(keys[i], i + 1, i);
+
+            keys[--size] = null;
+        }
+
+        /**
+         * Moves the entry at the given index to another index with a new value, shifting the entries in between.
+         */
+        private void move(final int from, final int to, final long raw) {
+            Object key = keys[from];
+            int slot = find(key, from);
+
+            if (from < to) {
+                System.arraycopy(keys, from + 1, keys, from, to - from);
+                System.arraycopy(values, from + 1, values, from, to - from);
+
+                for (int i = from; i < to; i++)
+                    relocate(keys[i], i + 1, i);
+            } else if (to < from) {
+                System.arraycopy(keys, to, keys, to + 1, from - to);
+                System.arraycopy(values, to, values, to + 1, from - to);
+
+                for (int i = from; i > to; i--)
+                    relocate(keys[i], i - 1, i);
+            }
+
+            keys[to] = key;
+            values[to] = raw;
+            table[slot] = to + 1;
+        }
+
+        /**
+         * Finds the slot of the given key which holds the given index.
+         */
+        private int find(@NotNull final Object key, final int index) {
+            int mask = table.length - 1;
+            int slot = slot(key);
+            while (table[slot] != index + 1)
+                slot = (slot + 1) & mask;
+
+            return slot;
+        }
+
+        private void relocate(@NotNull final Object key, final int from, final int to) {
+            table[find(key, from)] = to + 1;
+        }
+
+        private void link(@NotNull final Object key, final int index) {
+            int mask = table.length - 1;
+            int slot = slot(key);
+            while (table[slot] != 0)
+                slot = (slot + 1) & mask;
+
+            table[slot] = index + 1;
+        }
+
+        /**
+         * Empties the given slot, moving the following slots of the probe sequence back so no lookup stops early.
+         */
+        private void unlink(int slot) {
+            int mask = table.length - 1;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+
+                int entry = table[next];
+                if (entry == 0) break;
+
+                // Slots whose key hashes between the empty slot and their own slot have to stay.
+                int home = slot(keys[entry - 1]);
+                if (slot <= next ? (slot < home && home <= next) : (slot < home || home <= next)) continue;
+
+                table[slot] = entry;
+                slot = next;
+            }
+
+            table[slot] = 0;
+        }
+
+        /**
+         * Rebuilds the table for the given amount of keys.
+         */
+        private void index(final int capacity) {
+            int bits = Math.max(1, 33 - Integer.numberOfLeadingZeros(Math.max(capacity, 1)));
+            this.table = new int[1 << bits];
+            this.shift = 32 - bits;
+
+            for (int i = 0; i < size; i++)
+                link(keys[i], i);
+        }
+
+        private int slot(@NotNull final Object key) {
+            return (key.hashCode() * 0x9E3779B9) >>> shift;
+        }
+    }
+}
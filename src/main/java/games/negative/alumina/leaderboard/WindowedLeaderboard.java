@@ -0,0 +1,368 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents a set of rolling leaderboards, such as "today" and "this week", fed by a single stream of increments.
+ * <p>
+ * Time is split into buckets of a fixed length and each window spans a fixed amount of buckets. Every key keeps
+ * a counter per active bucket and a running total per window, and totals are adjusted as buckets fall out of a
+ * window, so no window is ever rebuilt by rescanning history. Each window is exposed as a {@link LongLeaderboard}.
+ * <p>
+ * Every update only offers the keys whose totals changed since the previous update to the windows. Keys without
+ * any increment left in a window are removed from it, and their counters are evicted once every window is empty,
+ * the all-time total is kept by the all-time leaderboard.
+ * @param <K> Key type which can be used for identification, such as {@link java.util.UUID}!
+ */
+public abstract class WindowedLeaderboard<K> {
+
+    private final Object lock = new Object();
+    private final Map<K, Counter> counters = Maps.newHashMap();
+    private final Set<K> changed = Sets.newHashSet();
+    private long bucket;
+
+    /*
+     * Held for a whole update, so the totals of an older update are never published after those of a newer one.
+     */
+    private final Object updateLock = new Object();
+
+    private final String name;
+    private final LeaderboardComparingType comparing;
+    private final long bucketLength;
+
+    private final String[] ids;
+    private final int[] lengths;
+    private final Map<String, View> views = Maps.newLinkedHashMap();
+    private final View allTime;
+
+    /**
+     * Creates a new windowed leaderboard.
+     * @param name Name of the leaderboard.
+     * @param comparing Comparing type of every window.
+     * @param bucketLength Length of a single bucket, such as one hour.
+     * @param windows Identifier of each window and the amount of buckets it spans, such as "daily" and 24.
+     */
+    public WindowedLeaderboard(@NotNull final String name, @NotNull final LeaderboardComparingType comparing, @NotNull final Duration bucketLength, @NotNull final Map<String, Integer> windows) {
+        Preconditions.checkNotNull(name, "Name cannot be null!");
+        Preconditions.checkNotNull(comparing, "Comparing cannot be null!");
+        Preconditions.checkNotNull(bucketLength, "Bucket length cannot be null!");
+        Preconditions.checkNotNull(windows, "Windows cannot be null!");
+        Preconditions.checkArgument(bucketLength.toMillis() > 0, "Bucket length must be positive!");
+
+        this.name = name;
+        this.comparing = comparing;
+        this.bucketLength = bucketLength.toMillis();
+
+        this.ids = new String[windows.size()];
+        this.lengths = new int[windows.size()];
+
+        int index = 0;
+        for (Map.Entry<String, Integer> entry : windows.entrySet()) {
+            Preconditions.checkArgument(entry.getValue() != null && entry.getValue() > 0, "Window " + entry.getKey() + " must span at least one bucket!");
+
+            ids[index] = entry.getKey();
+            lengths[index] = entry.getValue();
+            views.put(entry.getKey(), new View(name + "-" + entry.getKey(), index));
+            index++;
+        }
+
+        this.allTime = new View(name + "-all-time", -1);
+    }
+
+    /**
+     * Parses the key to a string.
+     * @param key Key to parse.
+     * @return Parsed key.
+     */
+    @NotNull
+    public abstract String parseKey(@NotNull final K key);
+
+    /**
+     * Parses the value to a string.
+     * @param value Value to parse.
+     * @return Parsed value.
+     */
+    @NotNull
+    public abstract String parseValue(final long value);
+
+    /**
+     * Adds the given amount to the current bucket of the given key.
+     * @param key Key to increment.
+     * @param amount Amount to add.
+     */
+    public void increment(@NotNull final K key, final long amount) {
+        Preconditions.checkNotNull(key, "Key cannot be null!");
+
+        synchronized (lock) {
+            long bucket = currentBucket();
+            Counter counter = counters.computeIfAbsent(key, k -> new Counter(lengths.length, total(k)));
+            counter.roll(bucket, lengths);
+            counter.add(bucket, amount);
+
+            changed.add(key);
+        }
+    }
+
+    /**
+     * Rolls every counter over to the current bucket and offers the changed totals to every window.
+     */
+    public void update() {
+        synchronized (updateLock) {
+            Object[] keys;
+            long[][] sums;
+            long[] totals;
+            synchronized (lock) {
+                long bucket = currentBucket();
+
+                // Counters which were empty and unchanged since the previous update have their total in the all-time leaderboard.
+                Iterator<Map.Entry<K, Counter>> iterator = counters.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<K, Counter> entry = iterator.next();
+                    if (entry.getValue().roll(bucket, lengths)) changed.add(entry.getKey());
+                    else if (entry.getValue().size == 0 && !changed.contains(entry.getKey())) iterator.remove();
+                }
+
+                keys = changed.toArray();
+                sums = new long[lengths.length][keys.length];
+                totals = new long[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    Counter counter = counters.get(keys[i]);
+                    for (int window = 0; window < lengths.length; window++)
+                        sums[window][i] = counter.sums[window];
+
+                    totals[i] = counter.total;
+                }
+
+                changed.clear();
+            }
+
+            for (View view : views.values()) {
+                view.offer(keys, sums[view.window]);
+            }
+
+            allTime.offerRaw(keys, totals, Set.of());
+        }
+    }
+
+    /**
+     * Gets the leaderboard of the given window.
+     * @param id Identifier of the window.
+     * @return Leaderboard of the window.
+     * @throws IllegalArgumentException if no window with the given identifier exists.
+     */
+    @NotNull
+    public LongLeaderboard<K> window(@NotNull final String id) {
+        Preconditions.checkNotNull(id, "ID cannot be null!");
+
+        View view = views.get(id);
+        Preconditions.checkArgument(view != null, "Unknown window: " + id);
+        return view;
+    }
+
+    /**
+     * Gets the leaderboard of every increment ever made.
+     * @return All-time leaderboard.
+     */
+    @NotNull
+    public LongLeaderboard<K> allTime() {
+        return allTime;
+    }
+
+    /**
+     * Gets the identifiers of every window.
+     * @return Array of window identifiers.
+     */
+    @NotNull
+    public String[] windows() {
+        return ids.clone();
+    }
+
+    @NotNull
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * Gets the current bucket, must be called while holding the lock.
+     * <p>
+     * The bucket never moves backwards, so a clock which is turned back never appends an older bucket to a counter.
+     */
+    private long currentBucket() {
+        this.bucket = Math.max(bucket, System.currentTimeMillis() / bucketLength);
+        return bucket;
+    }
+
+    /**
+     * Gets the all-time total of a key whose counter was evicted.
+     */
+    private long total(@NotNull final K key) {
+        int position = allTime.position(key);
+        return (position == -1 ? 0 : allTime.valueAt(position));
+    }
+
+    /**
+     * Leaderboard of a single window, reading the totals of the counters.
+     */
+    private final class View extends LongLeaderboard<K> {
+
+        private final int window;
+
+        private View(@NotNull final String name, final int window) {
+            super(name, comparing);
+            this.window = window;
+        }
+
+        @Override
+        public long getValue(@NotNull final K key) {
+            synchronized (lock) {
+                Counter counter = counters.get(key);
+                if (counter == null) return (window == -1 ? total(key) : 0);
+
+                return (window == -1 ? counter.total : counter.sums[window]);
+            }
+        }
+
+        /**
+         * Offers the changed sums of this window, removing the keys which have nothing left in it.
+         */
+        private void offer(@NotNull final Object[] keys, @NotNull final long[] sums) {
+            List<Object> offered = Lists.newArrayListWithCapacity(keys.length);
+            long[] values = new long[keys.length];
+            List<Object> removed = Lists.newArrayList();
+            for (int i = 0; i < keys.length; i++) {
+                if (sums[i] == 0) {
+                    removed.add(keys[i]);
+                    continue;
+                }
+
+                values[offered.size()] = sums[i];
+                offered.add(keys[i]);
+            }
+
+            offerRaw(offered.toArray(), Arrays.copyOf(values, offered.size()), removed);
+        }
+
+        @NotNull
+        @Override
+        public String parseKey(@NotNull final K key) {
+            return WindowedLeaderboard.this.parseKey(key);
+        }
+
+        @NotNull
+        @Override
+        public String parseValue(final long value) {
+            return WindowedLeaderboard.this.parseValue(value);
+        }
+    }
+
+    /**
+     * Counters of a single key, kept as a list of active buckets in ascending order.
+     */
+    private static final class Counter {
+
+        private long[] buckets = new long[2];
+        private long[] counts = new long[2];
+        private int size;
+
+        /*
+         * Per window, the running total and the amount of leading buckets which already fell out of it.
+         */
+        private final long[] sums;
+        private final int[] expired;
+
+        private long total;
+
+        private Counter(final int windows, final long total) {
+            this.sums = new long[windows];
+            this.expired = new int[windows];
+            this.total = total;
+        }
+
+        private void add(final long bucket, final long amount) {
+            if (size == 0 || buckets[size - 1] != bucket) {
+                if (size == buckets.length) {
+                    buckets = Arrays.copyOf(buckets, size << 1);
+                    counts = Arrays.copyOf(counts, size << 1);
+                }
+
+                buckets[size] = bucket;
+                counts[size++] = 0;
+            }
+
+            counts[size - 1] += amount;
+            total += amount;
+
+            for (int i = 0; i < sums.length; i++)
+                sums[i] += amount;
+        }
+
+        /**
+         * Drops the buckets which fell out of each window.
+         * @return Whether the sum of any window changed.
+         */
+        private boolean roll(final long bucket, @NotNull final int[] lengths) {
+            boolean changed = false;
+            int dropped = size;
+            for (int i = 0; i < lengths.length; i++) {
+                long cutoff = bucket - lengths[i];
+                while (expired[i] < size && buckets[expired[i]] <= cutoff) {
+                    changed |= counts[expired[i]] != 0;
+                    sums[i] -= counts[expired[i]];
+                    expired[i]++;
+                }
+
+                dropped = Math.min(dropped, expired[i]);
+            }
+
+            // Buckets which fell out of every window are no longer needed.
+            if (dropped == 0) return changed;
+
+            size -= dropped;
+            System.arraycopy(buckets, dropped, buckets, 0, size);
+            System.arraycopy(counts, dropped, counts, 0, size);
+
+            for (int i = 0; i < expired.length; i++)
+                expired[i] -= dropped;
+
+            return changed;
+        }
+    }
+}
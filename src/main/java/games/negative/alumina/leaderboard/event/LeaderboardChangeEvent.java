@@ -0,0 +1,91 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard.event;
+
+import games.negative.alumina.leaderboard.Leaderboard;
+import games.negative.alumina.leaderboard.LeaderboardChange;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Called when a new snapshot of a {@link Leaderboard} changed the position of at least one entry.
+ * <p>
+ * This event is asynchronous when the snapshot was published off the main thread.
+ */
+public class LeaderboardChangeEvent extends Event {
+
+    private static final HandlerList handlers = new HandlerList();
+
+    private final Leaderboard<?, ?> leaderboard;
+    private final List<? extends LeaderboardChange<?, ?>> changes;
+
+    public LeaderboardChangeEvent(@NotNull final Leaderboard<?, ?> leaderboard, @NotNull final List<? extends LeaderboardChange<?, ?>> changes) {
+        super(!Bukkit.isPrimaryThread());
+        this.leaderboard = leaderboard;
+        this.changes = changes;
+    }
+
+    /**
+     * Gets the leaderboard which changed.
+     * @return Leaderboard of the event.
+     */
+    @NotNull
+    public Leaderboard<?, ?> getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Gets the changes between the previous and the new snapshot.
+     * @return Unmodifiable list of changes.
+     */
+    @NotNull
+    public List<? extends LeaderboardChange<?, ?>> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Checks whether any listener is registered for this event, so the changes are only computed when needed.
+     * @return Whether the event has listeners.
+     */
+    public static boolean hasListeners() {
+        return handlers.getRegisteredListeners().length > 0;
+    }
+
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return handlers;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.message;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents the content of a {@link Message} which was parsed once, with every {@code %placeholder%}
+ * left as a slot which is filled on every render without parsing the content again.
+ */
+final class CompiledMessage {
+
+    /*
+     * Slots are marked in the parsed tree by this non-character followed by the slot index,
+     * since MiniMessage may merge the inserted markers with the surrounding text.
+     */
+    private static final char MARKER = '\uFDD0';
+    private static final char FIRST_SLOT = '\uE000';
+    private static final int MAX_SLOTS = 0x1900;
+
+    private static final String SLOT_TAG = "alumina_slot_";
+
+    private final long generation;
+    private final Component template;
+    private final String[] slots;
+    private final Map<String, Integer> indexes;
+
+    /*
+     * Components of the template which contain a slot themselves or in one of their children.
+     */
+    private final Set<Component> marked;
+
+    private CompiledMessage(final long generation, @NotNull final Component template, @NotNull final String[] slots, @NotNull final Map<String, Integer> indexes) {
+        this.generation = generation;
+        this.template = template;
+        this.slots = slots;
+        this.indexes = indexes;
+        this.marked = Sets.newIdentityHashSet();
+
+        mark(template);
+    }
+
+    /**
+     * Parses the given content once, turning every placeholder into a slot.
+     * @param content Content of the message.
+     * @param miniMessage MiniMessage instance to parse the content with.
+     * @param generation Generation of the custom tags of the MiniMessage instance.
+     * @return The compiled message, or null if the content can't be compiled because a placeholder is used
+     * inside a tag, such as a click event, where it has to be replaced before parsing.
+     */
+    @Nullable
+    static CompiledMessage compile(@NotNull final String content, @NotNull final MiniMessage miniMessage, final long generation) {
+        if (content.indexOf(MARKER) != -1) return null;
+
+        List<String> slots = Lists.newArrayList();
+        Map<String, Integer> indexes = Maps.newHashMap();
+        TagResolver.Builder resolver = TagResolver.builder();
+
+        StringBuilder builder = new StringBuilder(content.length() + 16);
+        boolean tag = false;
+
+        int i = 0;
+        while (i < content.length()) {
+            char c = content.charAt(i);
+            if (c == '<') tag = true;
+            else if (c == '>') tag = false;
+
+            int end = (c == '%' ? token(content, i) : -1);
+            if (end == -1) {
+                builder.append(c);
+                i++;
+                continue;
+            }
+
+            if (tag) return null;
+
+            String token = content.substring(i, end + 1);
+            Integer index = indexes.get(token);
+            if (index == null) {
+                index = slots.size();
+                if (index == MAX_SLOTS) return null;
+
+                slots.add(token);
+                indexes.put(token, index);
+                resolver.tag(SLOT_TAG + index, Tag.selfClosingInserting(Component.text(String.valueOf(new char[]{MARKER, (char) (FIRST_SLOT + index)}))));
+            }
+
+            builder.append('<').append(SLOT_TAG).append(index).append('>');
+            i = end + 1;
+        }
+
+        Component template = miniMessage.deserialize(builder.toString(), resolver.build());
+        return new CompiledMessage(generation, template, slots.toArray(String[]::new), indexes);
+    }
+
+    /**
+     * Finds the end of the placeholder starting at the given index.
+     * @return Index of the closing percent sign, or -1 if there is no placeholder at the index.
+     */
+    private static int token(@NotNull final String content, final int start) {
+        for (int i = start + 1; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == '%') return (i == start + 1 ? -1 : i);
+            if (Character.isWhitespace(c) || c == '<' || c == '>') return -1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Fills every slot of the template with the given values.
+     * @param values Values of the slots by index, none of them can be null.
+     * @return The rendered component.
+     */
+    @NotNull
+    Component render(@NotNull final Component[] values) {
+        return fill(template, values);
+    }
+
+    @NotNull
+    private Component fill(@NotNull final Component component, @NotNull final Component[] values) {
+        if (!marked.contains(component)) return component;
+
+        List<Component> children = component.children();
+        List<Component> filled = children;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component result = fill(child, values);
+            if (result == child) continue;
+
+            if (filled == children) filled = Lists.newArrayList(children);
+            filled.set(i, result);
+        }
+
+        if (component instanceof TextComponent text && text.content().indexOf(MARKER) != -1)
+            return split(text, filled, values);
+
+        return (filled == children ? component : component.children(filled));
+    }
+
+    /**
+     * Splits the content of a text component at its slots, the parts inherit the style of the component.
+     */
+    @NotNull
+    private static Component split(@NotNull final TextComponent text, @NotNull final List<Component> children, @NotNull final Component[] values) {
+        String content = text.content();
+        List<Component> parts = Lists.newArrayListWithCapacity(children.size() + 3);
+
+        int start = 0;
+        for (int i = content.indexOf(MARKER); i != -1; i = content.indexOf(MARKER, start)) {
+            if (i > start) parts.add(Component.text(content.substring(start, i)));
+
+            parts.add(values[content.charAt(i + 1) - FIRST_SLOT]);
+            start = i + 2;
+        }
+
+        if (start < content.length()) parts.add(Component.text(content.substring(start)));
+        parts.addAll(children);
+
+        return text.content("").children(parts);
+    }
+
+    private boolean mark(@NotNull final Component component) {
+        boolean contains = component instanceof TextComponent text && text.content().indexOf(MARKER) != -1;
+        for (Component child : component.children()) {
+            contains |= mark(child);
+        }
+
+        if (contains) marked.add(component);
+        return contains;
+    }
+
+    /**
+     * Gets the slot index of the given placeholder.
+     * @param token Placeholder including its percent signs, such as {@code %player%}.
+     * @return Index of the slot, or -1 if the placeholder is not part of the message.
+     */
+    int slot(@NotNull final String token) {
+        Integer index = indexes.get(token);
+        return (index == null ? -1 : index);
+    }
+
+    /**
+     * Gets the placeholder of the given slot.
+     * @param index Index of the slot.
+     * @return Placeholder including its percent signs.
+     */
+    @NotNull
+    String token(final int index) {
+        return slots[index];
+    }
+
+    /**
+     * Gets the amount of slots in the message.
+     * @return Amount of slots.
+     */
+    int size() {
+        return slots.length;
+    }
+
+    /**
+     * Gets the generation of the custom tags the message was compiled with.
+     * @return Generation of the custom tags.
+     */
+    long generation() {
+        return generation;
+    }
+}
@@ -28,6 +28,7 @@
 package games.negative.alumina.message;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import games.negative.alumina.logger.Logs;
 import games.negative.alumina.util.MiniMessageUtil;
@@ -41,8 +42,15 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.AbstractMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Represents a message that can be sent to a {@link Audience}.
@@ -53,11 +61,18 @@ import java.util.Map;
 @SuppressWarnings("unused")
 public class Message {
 
-    private static Component PREFIX;
+    private static volatile Component PREFIX;
 
-    private static final Map<String, Tag> CUSTOM_TAGS = Maps.newConcurrentMap();
+    /*
+     * The custom tags and the MiniMessage instance built from them, replaced as a whole whenever a tag is registered.
+     */
+    private static volatile TagRegistry registry = new TagRegistry(Map.of(), MiniMessage.builder().build(), 0);
+    private static final Object REGISTRY_LOCK = new Object();
 
-    private static MiniMessage miniMessage;
+    /*
+     * Increased whenever a PlaceholderAPI expansion is registered or unregistered, see {@link MessageListener}.
+     */
+    private static final AtomicLong expansions = new AtomicLong();
 
     /*
      * This is the default, unmodified message.
@@ -69,6 +84,21 @@ public class Message {
      */
     private final boolean papi;
 
+    /*
+     * The content parsed once with its placeholders left as slots, see {@link #compile()}.
+     */
+    private volatile CompiledMessage compiled;
+    private volatile boolean uncompilable;
+
+    /*
+     * The PlaceholderAPI slots of the compiled message, found once per compiled message and set of expansions.
+     */
+    private volatile Dependents dependents;
+
+    /*
+     * The automaton of the last string placeholder keys this message was rendered with.
+     */
+    private volatile PlaceholderReplacer replacer;
 
     /**
      * Creates a new message.
@@ -79,7 +109,7 @@ public class Message {
         Preconditions.checkNotNull(text, "Text cannot be null.");
 
         this.content = text;
-        this.papi = Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null;
+        this.papi = Bukkit.getServer() != null && Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null;
     }
 
     /**
@@ -119,6 +149,19 @@ public class Message {
         audience.sendMessage(component);
     }
 
+    /**
+     * Send the final message to a {@link Player} through the {@link MessageQueue}, which coalesces
+     * identical consecutive messages and limits the rate of messages per player.
+     *
+     * @param player The recipient of the message.
+     * @param placeholders The optional key-value pairs of placeholders to replace in the message.
+     */
+    public void queue(@NotNull Player player, @Nullable String... placeholders) {
+        Preconditions.checkNotNull(player, "Player cannot be null.");
+
+        MessageQueue.send(player, asComponent(player, placeholders));
+    }
+
     /**
      * Send the final message to an iterable collection of a class that extends {@link Audience}
      * @param iterable The iterable collection of a class that extends {@link Audience}
@@ -129,9 +172,7 @@ public class Message {
         Preconditions.checkNotNull(iterable, "Iterable cannot be null.");
         Preconditions.checkArgument(iterable.iterator().hasNext(), "Iterable cannot be empty.");
 
-        for (Audience audience : iterable) {
-            send(audience, placeholders);
-        }
+        sendAll(iterable, placeholders);
     }
 
     /**
@@ -144,9 +185,7 @@ public class Message {
         Preconditions.checkNotNull(iterable, "Iterable cannot be null.");
         Preconditions.checkArgument(iterable.iterator().hasNext(), "Iterable cannot be empty.");
 
-        for (Audience audience : iterable) {
-            send(audience, placeholders);
-        }
+        sendAll(iterable, placeholders);
     }
 
     /**
@@ -158,8 +197,146 @@ public class Message {
         Preconditions.checkNotNull(iterable, "Iterable cannot be null.");
         Preconditions.checkArgument(iterable.iterator().hasNext(), "Iterable cannot be empty.");
 
-        for (Audience audience : iterable) {
-            send(audience);
+        sendAll(iterable, (String[]) null);
+    }
+
+    /**
+     * Send the final message to every given {@link Audience}.
+     * @param audiences The recipients of the message.
+     * @see #sendAll(Iterable, String...)
+     */
+    public void sendAll(@NotNull Iterable<? extends Audience> audiences) {
+        sendAll(audiences, (String[]) null);
+    }
+
+    /**
+     * Send the final message to every given {@link Audience}.
+     * <p>
+     * The message is rendered once and the same component is sent to every audience. Only the
+     * PlaceholderAPI placeholders of the message are resolved for every audience separately.
+     * @param audiences The recipients of the message.
+     * @param placeholders The optional key-value pairs of placeholders to replace in the message.
+     */
+    public void sendAll(@NotNull Iterable<? extends Audience> audiences, @Nullable String... placeholders) {
+        Preconditions.checkNotNull(audiences, "Audiences cannot be null.");
+
+        CompiledMessage compiled = compiled();
+        Component[] values = (compiled == null ? null : new Component[compiled.size()]);
+        if (compiled == null || !fill(compiled, values, placeholders)) {
+            if (dependsOnAudience()) {
+                for (Audience audience : audiences) {
+                    send(audience, placeholders);
+                }
+                return;
+            }
+
+            Component component = asComponent(null, placeholders);
+            for (Audience audience : audiences) {
+                audience.sendMessage(component);
+            }
+            return;
+        }
+
+        deliver(audiences, compiled, values, null, audience -> parse(audience, placeholders));
+    }
+
+    /**
+     * Send the final message to every given {@link Audience}.
+     * <p>
+     * The message is rendered once and the same component is sent to every audience. Only the
+     * PlaceholderAPI placeholders of the message are resolved for every audience separately.
+     * @param audiences The recipients of the message.
+     * @param placeholders The optional key-value pairs of placeholders to replace in the message.
+     */
+    @SafeVarargs
+    public final void sendAll(@NotNull Iterable<? extends Audience> audiences, @Nullable Map.Entry<String, Component>... placeholders) {
+        Preconditions.checkNotNull(audiences, "Audiences cannot be null.");
+
+        CompiledMessage compiled = compiled();
+        if (compiled == null) {
+            if (dependsOnAudience()) {
+                for (Audience audience : audiences) {
+                    send(audience, placeholders);
+                }
+                return;
+            }
+
+            Component component = asComponent(null, placeholders);
+            for (Audience audience : audiences) {
+                audience.sendMessage(component);
+            }
+            return;
+        }
+
+        Component[] values = new Component[compiled.size()];
+        fill(compiled, values, placeholders);
+
+        deliver(audiences, compiled, values, placeholders, audience -> parse(audience, placeholders));
+    }
+
+    /**
+     * Send the final message to every given {@link Audience} without rendering it on the main thread.
+     * @param audiences The recipients of the message.
+     * @return A future which completes once the message is delivered to every audience.
+     * @see #sendAsync(Iterable, String...)
+     */
+    @NotNull
+    public CompletableFuture<Void> sendAsync(@NotNull Iterable<? extends Audience> audiences) {
+        return sendAsync(audiences, (String[]) null);
+    }
+
+    /**
+     * Send the final message to every given {@link Audience} without rendering it on the main thread.
+     * <p>
+     * The message is rendered on the executor of the {@link MessagePipeline}, in parallel for messages which
+     * depend on the audience, and delivered on the main thread spread across ticks. PlaceholderAPI expansions
+     * used by the message must be safe to call from other threads.
+     * @param audiences The recipients of the message.
+     * @param placeholders The optional key-value pairs of placeholders to replace in the message.
+     * @return A future which completes once the message is delivered to every audience.
+     */
+    @NotNull
+    public CompletableFuture<Void> sendAsync(@NotNull Iterable<? extends Audience> audiences, @Nullable String... placeholders) {
+        Preconditions.checkNotNull(audiences, "Audiences cannot be null.");
+
+        return MessagePipeline.submit(Lists.newArrayList(audiences), audience -> asComponent(audience, placeholders), !dependsOnAudience());
+    }
+
+    /**
+     * Send the final message to every given {@link Audience} without rendering it on the main thread.
+     * <p>
+     * The message is rendered on the executor of the {@link MessagePipeline}, in parallel for messages which
+     * depend on the audience, and delivered on the main thread spread across ticks. PlaceholderAPI expansions
+     * used by the message must be safe to call from other threads.
+     * @param audiences The recipients of the message.
+     * @param placeholders The optional key-value pairs of placeholders to replace in the message.
+     * @return A future which completes once the message is delivered to every audience.
+     */
+    @SafeVarargs
+    @NotNull
+    public final CompletableFuture<Void> sendAsync(@NotNull Iterable<? extends Audience> audiences, @Nullable Map.Entry<String, Component>... placeholders) {
+        Preconditions.checkNotNull(audiences, "Audiences cannot be null.");
+
+        return MessagePipeline.submit(Lists.newArrayList(audiences), audience -> asComponent(audience, placeholders), !dependsOnAudience());
+    }
+
+    /**
+     * Renders the compiled message once, or once per audience for its PlaceholderAPI placeholders, and sends it.
+     * Audiences whose PlaceholderAPI placeholders resolve to tags are sent the message parsed by the fallback instead.
+     */
+    private void deliver(@NotNull Iterable<? extends Audience> audiences, @NotNull CompiledMessage compiled, @NotNull Component[] values, @Nullable Map.Entry<String, Component>[] placeholders, @NotNull Function<Audience, Component> fallback) {
+        boolean[] dependent = dependent(compiled);
+        if (dependent == null) {
+            Component component = replace(render(compiled, values, null, null), compiled, placeholders);
+            for (Audience audience : audiences) {
+                audience.sendMessage(component);
+            }
+            return;
+        }
+
+        for (Audience audience : audiences) {
+            Component component = render(compiled, values, audience, dependent);
+            audience.sendMessage(component == null ? fallback.apply(audience) : replace(component, compiled, placeholders));
         }
     }
 
@@ -209,36 +386,34 @@ public class Message {
      */
     @NotNull
     public Component asComponent(@Nullable Audience audience, @Nullable String... placeholders) {
-        String current = content;
-        if (papi) {
-            current = me.clip.placeholderapi.PlaceholderAPI.setPlaceholders((audience instanceof Player player ? player : null), current);
+        CompiledMessage compiled = compiled();
+        if (compiled != null) {
+            Component[] values = new Component[compiled.size()];
+            if (fill(compiled, values, placeholders)) {
+                Component component = render(compiled, values, audience, dependent(compiled));
+                if (component != null) return component;
+            }
         }
 
-        if (placeholders != null) {
-            Preconditions.checkArgument(placeholders.length % 2 == 0, "Placeholders must be in key-value pairs.");
-
-            for (int i = 0; i < placeholders.length; i += 2) {
-                String placeholder = placeholders[i];
-                String replacement = placeholders[i + 1];
-
-                if (placeholder == null || replacement == null) {
-                    Logs.warning("Placeholder of " + placeholder + " has result of " + replacement + ". None of these value can be null. Skipping.", true);
-                    continue;
-                }
+        return parse(audience, placeholders);
+    }
 
-                current = current.replaceAll(placeholder, replacement);
-            }
+    /**
+     * Parses the message with every placeholder replaced up front, so the values of the placeholders
+     * are parsed together with the content and can style the text which follows them.
+     */
+    @NotNull
+    private Component parse(@Nullable Audience audience, @Nullable String... placeholders) {
+        String current = content;
+        if (papi) {
+            current = resolve(current, (audience instanceof Player player ? player : null));
         }
 
-        if (miniMessage == null) {
-            miniMessage = MiniMessage.builder().editTags(builder -> {
-                for (Map.Entry<String, Tag> entry : CUSTOM_TAGS.entrySet()) {
-                    builder.tag(entry.getKey(), entry.getValue());
-                }
-            }).build();
+        if (placeholders != null) {
+            current = replace(current, placeholders);
         }
 
-        Component component = MiniMessageUtil.translate(current, miniMessage);
+        Component component = MiniMessageUtil.translate(current, miniMessage());
         if (PREFIX != null) {
             component = component.replaceText(TextReplacementConfig.builder().matchLiteral("%prefix%").replacement(PREFIX).build());
         }
@@ -258,41 +433,340 @@ public class Message {
     @SafeVarargs
     @NotNull
     public final Component asComponent(@Nullable Audience audience, @Nullable Map.Entry<String, Component>... placeholders) {
-        String current = content;
-        if (papi) {
-            current = me.clip.placeholderapi.PlaceholderAPI.setPlaceholders((audience instanceof Player player ? player : null), current);
+        CompiledMessage compiled = compiled();
+        if (compiled != null) {
+            Component[] values = new Component[compiled.size()];
+            fill(compiled, values, placeholders);
+
+            Component component = render(compiled, values, audience, dependent(compiled));
+            if (component != null) return replace(component, compiled, placeholders);
         }
 
-        if (miniMessage == null) {
-            miniMessage = MiniMessage.builder().editTags(builder -> {
-                for (Map.Entry<String, Tag> entry : CUSTOM_TAGS.entrySet()) {
-                    builder.tag(entry.getKey(), entry.getValue());
-                }
-            }).build();
+        return parse(audience, placeholders);
+    }
+
+    /**
+     * Parses the message with its PlaceholderAPI placeholders replaced up front and replaces the component placeholders afterwards.
+     */
+    @NotNull
+    private Component parse(@Nullable Audience audience, @Nullable Map.Entry<String, Component>[] placeholders) {
+        String current = content;
+        if (papi) {
+            current = resolve(current, (audience instanceof Player player ? player : null));
         }
 
-        Component component = MiniMessageUtil.translate(current, miniMessage);
+        Component component = MiniMessageUtil.translate(current, miniMessage());
         if (PREFIX != null) {
             component = component.replaceText(TextReplacementConfig.builder().matchLiteral("%prefix%").replacement(PREFIX).build());
         }
 
+        return replace(component, null, placeholders);
+    }
+
+    /**
+     * Replaces the given component placeholders which are not slots of the compiled message.
+     * @param component Rendered component.
+     * @param compiled Compiled message the component was rendered from, or null if it was parsed.
+     * @param placeholders The optional key-value pairs of placeholders to replace in the message.
+     * @return The component with every placeholder replaced.
+     */
+    @NotNull
+    private Component replace(@NotNull Component component, @Nullable CompiledMessage compiled, @Nullable Map.Entry<String, Component>[] placeholders) {
+        if (placeholders == null) return component;
+
+        for (Map.Entry<String, Component> placeholder : placeholders) {
+            if (placeholder == null) continue;
+
+            String key = placeholder.getKey();
+            Component value = placeholder.getValue();
+
+            if (key == null || value == null) {
+                Logs.warning("Placeholder of " + key + " has result of " + value + ". None of these value can be null. Skipping.", true);
+                continue;
+            }
+
+            // Placeholders which are slots of the compiled message were already filled.
+            if (compiled != null && compiled.slot(key) != -1) continue;
+
+            component = component.replaceText(TextReplacementConfig.builder().matchLiteral(key).replacement(value).build());
+        }
+
+        return component;
+    }
+
+    /**
+     * Parses the content of the message once, so every render only fills its placeholders.
+     * <p>
+     * Messages are compiled on their first render anyway, this can be used to compile them up front.
+     * Messages which use placeholders inside of tags, such as click events, can't be compiled and
+     * are parsed on every render instead.
+     * <p>
+     * A compiled message renders the same as a parsed one. Renders with a placeholder value which contains
+     * tags, such as {@code <gold>}, are parsed instead, since the tags of the value style the text after it.
+     * @return This message.
+     */
+    @NotNull
+    public Message compile() {
+        compiled();
+        return this;
+    }
+
+    /**
+     * Gets the compiled content of the message, compiling it if needed.
+     * @return The compiled message, or null if the message can't be compiled.
+     */
+    @Nullable
+    private CompiledMessage compiled() {
+        if (uncompilable) return null;
+
+        TagRegistry registry = Message.registry;
+
+        CompiledMessage compiled = this.compiled;
+        if (compiled != null && compiled.generation() == registry.generation()) return compiled;
+
+        compiled = CompiledMessage.compile(content, registry.miniMessage(), registry.generation());
+        if (compiled == null) uncompilable = true;
+
+        this.compiled = compiled;
+        return compiled;
+    }
+
+    /**
+     * Checks whether the message has to be rendered for every audience separately, because it contains
+     * PlaceholderAPI placeholders.
+     * @return Whether the rendered message depends on the audience.
+     */
+    public boolean dependsOnAudience() {
+        if (!papi) return false;
+
+        CompiledMessage compiled = compiled();
+        return (compiled == null ? content.indexOf('%') != -1 : dependent(compiled) != null);
+    }
+
+    /**
+     * Finds the slots of the compiled message which are registered PlaceholderAPI placeholders.
+     * @return Whether every slot depends on the audience, or null if none of them does.
+     */
+    @Nullable
+    private boolean[] dependent(@NotNull CompiledMessage compiled) {
+        if (!papi) return null;
+
+        long expansions = Message.expansions.get();
+
+        Dependents dependents = this.dependents;
+        if (dependents != null && dependents.compiled() == compiled && dependents.expansions() == expansions) return dependents.slots();
+
+        boolean[] dependent = null;
+        for (int i = 0; i < compiled.size(); i++) {
+            String token = compiled.token(i);
+
+            // PlaceholderAPI placeholders are "%identifier_parameters%".
+            int separator = token.indexOf('_');
+            if (separator == -1) continue;
+
+            String identifier = token.substring(1, separator).toLowerCase(Locale.ROOT);
+            if (!me.clip.placeholderapi.PlaceholderAPI.isRegistered(identifier)) continue;
+
+            if (dependent == null) dependent = new boolean[compiled.size()];
+            dependent[i] = true;
+        }
+
+        this.dependents = new Dependents(compiled, expansions, dependent);
+        return dependent;
+    }
+
+    /**
+     * Replaces the PlaceholderAPI placeholders of the given text one by one through the {@link PlaceholderCache},
+     * so messages which are parsed instead of compiled are cached the same way.
+     * @param text The text to resolve the placeholders of.
+     * @param player The player to resolve the placeholders for, or null to resolve them without a player.
+     * @return The text with every registered placeholder resolved.
+     */
+    @NotNull
+    private static String resolve(@NotNull String text, @Nullable Player player) {
+        int start = text.indexOf('%');
+        if (start == -1) return text;
+
+        StringBuilder builder = new StringBuilder(text.length());
+        int copied = 0;
+        while (start != -1) {
+            int end = text.indexOf('%', start + 1);
+            if (end == -1) break;
+
+            // PlaceholderAPI placeholders are "%identifier_parameters%".
+            int separator = text.indexOf('_', start + 1);
+            if (separator == -1 || separator > end) {
+                start = end;
+                continue;
+            }
+
+            String identifier = text.substring(start + 1, separator).toLowerCase(Locale.ROOT);
+            if (!me.clip.placeholderapi.PlaceholderAPI.isRegistered(identifier)) {
+                start = end;
+                continue;
+            }
+
+            builder.append(text, copied, start);
+            builder.append(PlaceholderCache.resolve(player, text.substring(start, end + 1)));
+
+            copied = end + 1;
+            start = text.indexOf('%', copied);
+        }
+
+        if (copied == 0) return text;
+
+        builder.append(text, copied, text.length());
+        return builder.toString();
+    }
+
+    /**
+     * Forgets which slots of every message are PlaceholderAPI placeholders, called when an expansion is registered or unregistered.
+     */
+    static void invalidateExpansions() {
+        expansions.incrementAndGet();
+    }
+
+    /**
+     * Resolves the PlaceholderAPI placeholders of the compiled message for the given audience and renders it.
+     * PlaceholderAPI placeholders take precedence over every other value.
+     * @param values Values of the slots, which are not modified.
+     * @param dependent Slots which are PlaceholderAPI placeholders, or null if there are none.
+     * @return The rendered component, or null if a placeholder resolved to tags and the message has to be parsed.
+     */
+    @Nullable
+    private Component render(@NotNull CompiledMessage compiled, @NotNull Component[] values, @Nullable Audience audience, @Nullable boolean[] dependent) {
+        Component[] filled = values.clone();
+        if (dependent != null) {
+            Player player = (audience instanceof Player online ? online : null);
+            for (int i = 0; i < filled.length; i++) {
+                if (!dependent[i]) continue;
+
+                String token = compiled.token(i);
+                String resolved = PlaceholderCache.resolve(player, token);
+                if (resolved.equals(token)) continue;
+                if (!plain(resolved)) return null;
+
+                filled[i] = Component.text(resolved);
+            }
+        }
+
+        return compiled.render(complete(compiled, filled));
+    }
+
+    /**
+     * Fills the slots of the compiled message with the given string placeholders.
+     * @return Whether every placeholder could be filled, otherwise the message has to be parsed with the placeholders replaced,
+     * such as for a placeholder which is not a slot or a value which contains tags.
+     */
+    private boolean fill(@NotNull CompiledMessage compiled, @NotNull Component[] values, @Nullable String... placeholders) {
         if (placeholders != null) {
-            for (Map.Entry<String, Component> placeholder : placeholders) {
-                if (placeholder == null) continue;
+            Preconditions.checkArgument(placeholders.length % 2 == 0, "Placeholders must be in key-value pairs.");
 
-                String key = placeholder.getKey();
-                Component value = placeholder.getValue();
+            for (int i = 0; i < placeholders.length; i += 2) {
+                String placeholder = placeholders[i];
+                String replacement = placeholders[i + 1];
 
-                if (key == null || value == null) {
-                    Logs.warning("Placeholder of " + key + " has result of " + value + ". None of these value can be null. Skipping.", true);
+                if (placeholder == null || replacement == null) {
+                    Logs.warning("Placeholder of " + placeholder + " has result of " + replacement + ". None of these value can be null. Skipping.", true);
                     continue;
                 }
 
-                component = component.replaceText(TextReplacementConfig.builder().matchLiteral(key).replacement(value).build());
+                int slot = compiled.slot(placeholder);
+                if (slot == -1) {
+                    if (content.contains(placeholder)) return false;
+                    continue;
+                }
+
+                if (!plain(replacement)) return false;
+                if (values[slot] == null) values[slot] = Component.text(replacement);
             }
         }
 
-        return component;
+        return true;
+    }
+
+    /**
+     * Fills the slots of the compiled message with the given component placeholders,
+     * placeholders which are not slots are replaced after rendering.
+     */
+    private void fill(@NotNull CompiledMessage compiled, @NotNull Component[] values, @Nullable Map.Entry<String, Component>[] placeholders) {
+        if (placeholders == null) return;
+
+        for (Map.Entry<String, Component> placeholder : placeholders) {
+            if (placeholder == null || placeholder.getKey() == null || placeholder.getValue() == null) continue;
+
+            int slot = compiled.slot(placeholder.getKey());
+            if (slot != -1 && values[slot] == null) values[slot] = placeholder.getValue();
+        }
+    }
+
+    /**
+     * Replaces the given string placeholders in a single pass.
+     * @param input Input to replace the placeholders in.
+     * @param placeholders Key-value pairs of placeholders.
+     * @return The input with every placeholder replaced.
+     */
+    @NotNull
+    private String replace(@NotNull String input, @NotNull String... placeholders) {
+        Preconditions.checkArgument(placeholders.length % 2 == 0, "Placeholders must be in key-value pairs.");
+
+        List<String> keys = Lists.newArrayListWithCapacity(placeholders.length / 2);
+        List<String> replacements = Lists.newArrayListWithCapacity(placeholders.length / 2);
+        for (int i = 0; i < placeholders.length; i += 2) {
+            String placeholder = placeholders[i];
+            String replacement = placeholders[i + 1];
+
+            if (placeholder == null || placeholder.isEmpty() || replacement == null) {
+                Logs.warning("Placeholder of " + placeholder + " has result of " + replacement + ". None of these value can be null. Skipping.", true);
+                continue;
+            }
+
+            keys.add(placeholder);
+            replacements.add(replacement);
+        }
+
+        if (keys.isEmpty()) return input;
+
+        // Messages are usually sent with the same placeholder keys, so the last automaton is reused.
+        String[] array = keys.toArray(String[]::new);
+        PlaceholderReplacer replacer = this.replacer;
+        if (replacer == null || !replacer.compiledFrom(array)) {
+            replacer = new PlaceholderReplacer(array);
+            this.replacer = replacer;
+        }
+
+        return replacer.replace(input, replacements.toArray(String[]::new));
+    }
+
+    /**
+     * Fills the remaining slots of the compiled message with the prefix, or with the placeholder itself.
+     */
+    @NotNull
+    private Component[] complete(@NotNull CompiledMessage compiled, @NotNull Component[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) continue;
+
+            String token = compiled.token(i);
+            values[i] = (PREFIX != null && token.equals("%prefix%") ? PREFIX : Component.text(token));
+        }
+
+        return values;
+    }
+
+    /**
+     * Checks whether a placeholder value parses to its own text, so it can fill a slot without changing the
+     * result. Values with tags or escapes have to be parsed together with the content around them.
+     */
+    private static boolean plain(@NotNull String value) {
+        return value.indexOf('<') == -1 && value.indexOf('\\') == -1;
+    }
+
+    /**
+     * Gets the MiniMessage instance with every custom tag.
+     */
+    @NotNull
+    private static MiniMessage miniMessage() {
+        return registry.miniMessage();
     }
 
     /**
@@ -349,7 +823,50 @@ public class Message {
      * @param tag The tag to register.
      */
     public static void registerTag(@NotNull String name, @NotNull Tag tag) {
-        CUSTOM_TAGS.put(name, tag);
+        Preconditions.checkNotNull(name, "Name cannot be null.");
+        Preconditions.checkNotNull(tag, "Tag cannot be null.");
+
+        registerTags(Map.of(name, tag));
+    }
+
+    /**
+     * Register multiple custom minimessage tags for global use in all messages at once.
+     * <p>
+     * The MiniMessage instance is rebuilt and published atomically, messages which were already
+     * compiled are compiled again on their next render.
+     * @param tags The names of the tags and the tags to register.
+     */
+    public static void registerTags(@NotNull Map<String, Tag> tags) {
+        Preconditions.checkNotNull(tags, "Tags cannot be null.");
+
+        editTags(merged -> merged.putAll(tags));
+    }
+
+    /**
+     * Applies a change to the custom tags and publishes the rebuilt MiniMessage instance.
+     * @param change The change to apply to a copy of the custom tags.
+     */
+    private static void editTags(@NotNull Consumer<Map<String, Tag>> change) {
+        synchronized (REGISTRY_LOCK) {
+            Map<String, Tag> merged = Maps.newHashMap(registry.tags());
+            change.accept(merged);
+
+            MiniMessage miniMessage = MiniMessage.builder().editTags(builder -> {
+                for (Map.Entry<String, Tag> entry : merged.entrySet()) {
+                    builder.tag(entry.getKey(), entry.getValue());
+                }
+            }).build();
+
+            registry = new TagRegistry(Map.copyOf(merged), miniMessage, registry.generation() + 1);
+        }
+    }
+
+    /**
+     * Returns the generation of the custom tags, which increases every time a tag is registered.
+     * @return The current generation.
+     */
+    public static long generation() {
+        return registry.generation();
     }
 
     /**
@@ -365,8 +882,77 @@ public class Message {
         return PREFIX;
     }
 
+    /**
+     * Returns the registered custom tags.
+     * <p>
+     * The returned map is a live view, writing to it registers or unregisters the tags like
+     * {@link #registerTags(Map)} does, so every write rebuilds the MiniMessage instance.
+     * Prefer {@link #registerTags(Map)} to register several tags at once.
+     * @return A live view of the custom tags.
+     */
     @NotNull
     public static Map<String, Tag> customTags() {
-        return CUSTOM_TAGS;
+        return CustomTags.INSTANCE;
+    }
+
+    private record TagRegistry(Map<String, Tag> tags, MiniMessage miniMessage, long generation) {
+    }
+
+    /**
+     * View of the custom tags which reads the latest registry and writes through {@link #editTags(Consumer)}.
+     */
+    private static final class CustomTags extends AbstractMap<String, Tag> {
+
+        private static final CustomTags INSTANCE = new CustomTags();
+
+        @NotNull
+        @Override
+        public Set<Entry<String, Tag>> entrySet() {
+            return registry.tags().entrySet();
+        }
+
+        @Override
+        public Tag get(Object key) {
+            return registry.tags().get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return registry.tags().containsKey(key);
+        }
+
+        @Override
+        public Tag put(@NotNull String key, @NotNull Tag value) {
+            Preconditions.checkNotNull(key, "Name cannot be null.");
+            Preconditions.checkNotNull(value, "Tag cannot be null.");
+
+            Tag[] previous = new Tag[1];
+            editTags(merged -> previous[0] = merged.put(key, value));
+            return previous[0];
+        }
+
+        @Override
+        public void putAll(@NotNull Map<? extends String, ? extends Tag> tags) {
+            Preconditions.checkNotNull(tags, "Tags cannot be null.");
+
+            editTags(merged -> merged.putAll(tags));
+        }
+
+        @Override
+        public Tag remove(Object key) {
+            if (!registry.tags().containsKey(key)) return null;
+
+            Tag[] previous = new Tag[1];
+            editTags(merged -> previous[0] = merged.remove(key));
+            return previous[0];
+        }
+
+        @Override
+        public void clear() {
+            editTags(Map::clear);
+        }
+    }
+
+    private record Dependents(CompiledMessage compiled, long expansions, boolean[] slots) {
     }
 }
@@ -0,0 +1,62 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.message;
+
+import games.negative.alumina.event.Events;
+import games.negative.alumina.util.Tasks;
+import me.clip.placeholderapi.events.ExpansionRegisterEvent;
+import me.clip.placeholderapi.events.ExpansionUnregisterEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * The MessageListener class keeps the caches of the message classes up to date, registered when Alumina is enabled.
+ */
+public class MessageListener {
+
+    public MessageListener() {
+        // Remove the cached values and the queue when the player quits the server
+        Events.listen(PlayerQuitEvent.class, EventPriority.MONITOR, event -> {
+            PlaceholderCache.invalidate(event.getPlayer().getUniqueId());
+            MessageQueue.remove(event.getPlayer().getUniqueId());
+        });
+
+        if (Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null) listenExpansions();
+    }
+
+    private void listenExpansions() {
+        // The expansion is only registered after its event, so the slots are found again on the next tick as well.
+        Events.listen(ExpansionRegisterEvent.class, EventPriority.MONITOR, event -> {
+            Message.invalidateExpansions();
+            Tasks.run(Message::invalidateExpansions);
+        });
+
+        Events.listen(ExpansionUnregisterEvent.class, EventPriority.MONITOR, event -> Message.invalidateExpansions());
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.message;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import games.negative.alumina.logger.Logs;
+import games.negative.alumina.util.Tasks;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * The MessagePipeline class renders messages for many audiences off the main thread and delivers them
+ * on the main thread, spread across ticks.
+ * <p>
+ * Rendered components are handed back to the main thread in one batch per send, and at most
+ * {@link #setDeliveriesPerTick(int)} components are delivered per tick over all batches.
+ * <p>
+ * Messages are rendered on a fixed pool of daemon threads by default. Messages which are not delivered
+ * when Alumina is disabled are cancelled, and the pipeline is started again when Alumina is enabled.
+ */
+public class MessagePipeline {
+
+    /*
+     * Executor set with setExecutor, or null to render on the default executor.
+     */
+    private static volatile Executor executor;
+    private static volatile int deliveriesPerTick = 100;
+
+    private static final Object LOCK = new Object();
+    private static final Deque<Batch> batches = new ArrayDeque<>();
+    private static BukkitTask task;
+    private static boolean shutdown;
+
+    /*
+     * Created on first use and again after a shutdown, guarded by the lock.
+     */
+    private static ExecutorService defaultExecutor;
+
+    /*
+     * Futures of every submitted message which is not delivered yet, including the ones still rendering.
+     */
+    private static final Set<CompletableFuture<Void>> undelivered = Sets.newConcurrentHashSet();
+
+    /**
+     * Sets the executor messages are rendered on.
+     * @param executor The executor to render on.
+     */
+    public static void setExecutor(@NotNull Executor executor) {
+        Preconditions.checkNotNull(executor, "Executor cannot be null.");
+
+        MessagePipeline.executor = executor;
+    }
+
+    /**
+     * Sets the maximum amount of components delivered per tick.
+     * @param deliveries The maximum amount of deliveries per tick.
+     */
+    public static void setDeliveriesPerTick(int deliveries) {
+        Preconditions.checkArgument(deliveries > 0, "Deliveries per tick must be positive.");
+
+        MessagePipeline.deliveriesPerTick = deliveries;
+    }
+
+    /**
+     * Returns the amount of components which are rendered but not delivered yet.
+     * @return The amount of pending deliveries.
+     */
+    public static int pending() {
+        synchronized (LOCK) {
+            int pending = 0;
+            for (Batch batch : batches) {
+                pending += batch.audiences.size() - batch.delivered;
+            }
+
+            return pending;
+        }
+    }
+
+    /**
+     * Renders a component for every audience off the main thread and queues them for delivery.
+     * @param audiences The recipients.
+     * @param renderer The function rendering the component of an audience.
+     * @param shared Whether every audience receives the same component, which is then rendered once.
+     * @return A future which completes once every component is delivered.
+     */
+    @NotNull
+    static CompletableFuture<Void> submit(@NotNull List<? extends Audience> audiences, @NotNull Function<Audience, Component> renderer, boolean shared) {
+        if (audiences.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        CompletableFuture<Void> delivered = new CompletableFuture<>();
+        Executor executor;
+        synchronized (LOCK) {
+            if (shutdown) {
+                delivered.cancel(false);
+                return delivered;
+            }
+
+            undelivered.add(delivered);
+            executor = executor();
+        }
+
+        delivered.whenComplete((ignored, throwable) -> undelivered.remove(delivered));
+
+        CompletableFuture<List<Component>> rendered;
+        if (shared) {
+            rendered = CompletableFuture.supplyAsync(() -> {
+                Component component = renderer.apply(null);
+
+                List<Component> components = Lists.newArrayListWithCapacity(audiences.size());
+                for (int i = 0; i < audiences.size(); i++) {
+                    components.add(component);
+                }
+
+                return components;
+            }, executor);
+        } else {
+            int chunk = Math.max(1, audiences.size() / Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+            List<CompletableFuture<List<Component>>> chunks = Lists.newArrayList();
+            for (List<? extends Audience> part : Lists.partition(audiences, chunk)) {
+                chunks.add(CompletableFuture.supplyAsync(() -> {
+                    List<Component> components = Lists.newArrayListWithCapacity(part.size());
+                    for (Audience audience : part) {
+                        components.add(renderer.apply(audience));
+                    }
+
+                    return components;
+                }, executor));
+            }
+
+            rendered = CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+                List<Component> components = Lists.newArrayListWithCapacity(audiences.size());
+                for (CompletableFuture<List<Component>> part : chunks) {
+                    components.addAll(part.join());
+                }
+
+                return components;
+            });
+        }
+
+        rendered.whenComplete((components, throwable) -> {
+            if (throwable != null) {
+                Logs.severe("Could not render message. (" + throwable.getMessage() + ")");
+                delivered.completeExceptionally(throwable);
+                return;
+            }
+
+            enqueue(new Batch(audiences, components, delivered));
+        });
+
+        return delivered;
+    }
+
+    private static void enqueue(@NotNull Batch batch) {
+        synchronized (LOCK) {
+            if (shutdown) {
+                batch.future.cancel(false);
+                return;
+            }
+
+            batches.add(batch);
+            if (task == null) task = Tasks.run(MessagePipeline::drain, 1, 1);
+        }
+    }
+
+    /**
+     * Returns the executor to render on, creating the default executor if there is none. Called while holding the lock.
+     */
+    @NotNull
+    private static Executor executor() {
+        Executor executor = MessagePipeline.executor;
+        if (executor != null) return executor;
+
+        if (defaultExecutor == null) {
+            defaultExecutor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), new ThreadFactoryBuilder()
+                    .setNameFormat("alumina-message-%d")
+                    .setDaemon(true)
+                    .build());
+        }
+
+        return defaultExecutor;
+    }
+
+    /**
+     * Accepts messages again after a {@link #shutdown()}, the default executor is recreated on the next send.
+     * <p>
+     * This is called when Alumina is enabled, so the pipeline keeps working after a reload.
+     */
+    public static void start() {
+        synchronized (LOCK) {
+            shutdown = false;
+        }
+    }
+
+    /**
+     * Cancels every message which is not delivered yet and shuts down the default executor.
+     * <p>
+     * This is called when Alumina is disabled, messages sent afterwards are cancelled right away until {@link #start()} is called.
+     */
+    public static void shutdown() {
+        ExecutorService executor;
+        synchronized (LOCK) {
+            shutdown = true;
+
+            batches.clear();
+            if (task != null) task.cancel();
+            task = null;
+
+            executor = defaultExecutor;
+            defaultExecutor = null;
+        }
+
+        for (CompletableFuture<Void> future : undelivered) {
+            future.cancel(false);
+        }
+
+        if (executor != null) executor.shutdownNow();
+    }
+
+    /**
+     * Delivers up to the per tick limit of components, runs on the main thread every tick while batches are queued.
+     */
+    private static void drain() {
+        int budget = deliveriesPerTick;
+        while (budget > 0) {
+            Batch batch;
+            synchronized (LOCK) {
+                batch = batches.peek();
+                if (batch == null) {
+                    if (task != null) task.cancel();
+                    task = null;
+                    return;
+                }
+            }
+
+            budget -= batch.deliver(budget);
+            if (batch.delivered < batch.audiences.size()) continue;
+
+            synchronized (LOCK) {
+                batches.poll();
+            }
+
+            batch.future.complete(null);
+        }
+    }
+
+    private static final class Batch {
+
+        private final List<? extends Audience> audiences;
+        private final List<Component> components;
+        private final CompletableFuture<Void> future;
+        /*
+         * Written on the main thread only, read by pending() from any thread.
+         */
+        private volatile int delivered;
+
+        private Batch(@NotNull List<? extends Audience> audiences, @NotNull List<Component> components, @NotNull CompletableFuture<Void> future) {
+            this.audiences = audiences;
+            this.components = components;
+            this.future = future;
+        }
+
+        /**
+         * Delivers up to the given amount of components.
+         * @return The amount of delivered components.
+         */
+        private int deliver(int limit) {
+            int end = Math.min(audiences.size(), delivered + limit);
+            int start = delivered;
+
+            for (int i = start; i < end; i++) {
+                try {
+                    audiences.get(i).sendMessage(components.get(i));
+                } catch (Exception e) {
+                    Logs.severe("Could not deliver message. (" + e.getMessage() + ")");
+                }
+            }
+
+            delivered = end;
+            return end - start;
+        }
+    }
+}
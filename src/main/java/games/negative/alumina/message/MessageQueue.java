@@ -0,0 +1,369 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.message;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import games.negative.alumina.util.Tasks;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.title.Title;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The MessageQueue class bounds the messages sent to every player.
+ * <p>
+ * Identical consecutive messages within the dedupe window are coalesced, only the latest action bar and
+ * title of a tick are sent, and chat messages are limited to a configurable rate per player. Messages
+ * above the rate are queued, and the oldest queued messages are dropped once the queue is full.
+ * <p>
+ * Messages sent with {@link games.negative.alumina.command.Context#message(String)} and
+ * {@link games.negative.alumina.util.PlayerUtil#sendActionBar(net.kyori.adventure.audience.Audience, String)}
+ * go through the queue as well, unless it is disabled with {@link #setEnabled(boolean)}.
+ */
+public class MessageQueue {
+
+    private static volatile boolean enabled = true;
+    private static volatile double messagesPerSecond = 10;
+    private static volatile int burst = 20;
+    private static volatile int maxQueued = 50;
+    private static volatile long dedupeWindow = Duration.ofSeconds(1).toNanos();
+
+    private static final Map<UUID, Outbound> queues = Maps.newConcurrentMap();
+
+    private static final Object LOCK = new Object();
+    private static BukkitTask task;
+
+    private static final LongAdder sent = new LongAdder();
+    private static final LongAdder coalesced = new LongAdder();
+    private static final LongAdder dropped = new LongAdder();
+
+    /**
+     * Sets whether messages are queued, messages are sent right away while the queue is disabled.
+     * @param enabled Whether messages are queued.
+     */
+    public static void setEnabled(boolean enabled) {
+        MessageQueue.enabled = enabled;
+    }
+
+    /**
+     * Sets the rate of chat messages every player can receive.
+     * @param messagesPerSecond The sustained amount of messages per second.
+     * @param burst The amount of messages which can be sent at once before the rate applies.
+     */
+    public static void setRate(double messagesPerSecond, int burst) {
+        Preconditions.checkArgument(messagesPerSecond > 0, "Messages per second must be positive.");
+        Preconditions.checkArgument(burst > 0, "Burst must be positive.");
+
+        MessageQueue.messagesPerSecond = messagesPerSecond;
+        MessageQueue.burst = burst;
+    }
+
+    /**
+     * Sets the maximum amount of chat messages queued per player.
+     * @param maxQueued The maximum amount of queued messages.
+     */
+    public static void setMaxQueued(int maxQueued) {
+        Preconditions.checkArgument(maxQueued >= 0, "Max queued cannot be negative.");
+
+        MessageQueue.maxQueued = maxQueued;
+    }
+
+    /**
+     * Sets how long an identical consecutive message is coalesced with the previous one.
+     * @param window The dedupe window, zero to only coalesce messages within the same tick.
+     */
+    public static void setDedupeWindow(@NotNull Duration window) {
+        Preconditions.checkNotNull(window, "Window cannot be null.");
+        Preconditions.checkArgument(!window.isNegative(), "Window cannot be negative.");
+
+        MessageQueue.dedupeWindow = window.toNanos();
+    }
+
+    /**
+     * Queues a chat message for the given player, it is sent right away if the player is within the rate.
+     * @param player The recipient of the message.
+     * @param message The message to send.
+     */
+    public static void send(@NotNull Player player, @NotNull Component message) {
+        Preconditions.checkNotNull(player, "Player cannot be null.");
+        Preconditions.checkNotNull(message, "Message cannot be null.");
+
+        if (!enabled) {
+            player.sendMessage(message);
+            sent.increment();
+            return;
+        }
+
+        Outbound outbound = outbound(player);
+        if (outbound != null && outbound.chat(message)) schedule();
+    }
+
+    /**
+     * Queues an action bar for the given player, only the latest action bar of a tick is sent.
+     * @param player The recipient of the action bar.
+     * @param message The action bar to send.
+     */
+    public static void sendActionBar(@NotNull Player player, @NotNull Component message) {
+        Preconditions.checkNotNull(player, "Player cannot be null.");
+        Preconditions.checkNotNull(message, "Message cannot be null.");
+
+        if (!enabled) {
+            player.sendActionBar(message);
+            sent.increment();
+            return;
+        }
+
+        Outbound outbound = outbound(player);
+        if (outbound == null) return;
+
+        outbound.actionBar(message);
+        schedule();
+    }
+
+    /**
+     * Queues a title for the given player, only the latest title of a tick is sent.
+     * @param player The recipient of the title.
+     * @param title The title to show.
+     */
+    public static void showTitle(@NotNull Player player, @NotNull Title title) {
+        Preconditions.checkNotNull(player, "Player cannot be null.");
+        Preconditions.checkNotNull(title, "Title cannot be null.");
+
+        if (!enabled) {
+            player.showTitle(title);
+            sent.increment();
+            return;
+        }
+
+        Outbound outbound = outbound(player);
+        if (outbound == null) return;
+
+        outbound.title(title);
+        schedule();
+    }
+
+    /**
+     * Returns the amount of messages, action bars and titles which were sent.
+     * @return The amount of sent messages.
+     */
+    public static long sent() {
+        return sent.sum();
+    }
+
+    /**
+     * Returns the amount of messages, action bars and titles which were coalesced with an identical or newer one.
+     * @return The amount of coalesced messages.
+     */
+    public static long coalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Returns the amount of chat messages which were dropped because the queue of the player was full.
+     * @return The amount of dropped messages.
+     */
+    public static long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets the queue of the given player, creating it if needed.
+     * @return The queue of the player, or null if the player is offline and nothing can be sent.
+     */
+    @Nullable
+    private static Outbound outbound(@NotNull Player player) {
+        if (!player.isOnline()) return null;
+
+        Outbound outbound = queues.computeIfAbsent(player.getUniqueId(), uuid -> new Outbound(player));
+
+        // The player may have quit while the queue was created from another thread.
+        if (!player.isOnline()) {
+            queues.remove(player.getUniqueId(), outbound);
+            return null;
+        }
+
+        return outbound;
+    }
+
+    /**
+     * Removes the queue of the given player, along with every message queued for them.
+     * @param uuid The unique id of the player.
+     */
+    static void remove(@NotNull UUID uuid) {
+        queues.remove(uuid);
+    }
+
+    private static void schedule() {
+        synchronized (LOCK) {
+            if (task == null) task = Tasks.run(MessageQueue::flush, 1, 1);
+        }
+    }
+
+    /**
+     * Flushes every queue, runs on the main thread every tick while anything is queued.
+     */
+    private static void flush() {
+        boolean idle = true;
+
+        for (Outbound outbound : queues.values()) {
+            if (!outbound.flush()) idle = false;
+        }
+
+        if (!idle) return;
+
+        synchronized (LOCK) {
+            // Anything queued after the flush schedules the task again.
+            if (task != null) task.cancel();
+            task = null;
+        }
+    }
+
+    private static final class Outbound {
+
+        private final Player player;
+
+        private final Deque<Component> chat = new ArrayDeque<>();
+        private Component lastChat;
+        private long lastChatAt;
+
+        private double tokens = burst;
+        private long refilledAt = System.nanoTime();
+
+        private Component actionBar;
+        private Component lastActionBar;
+        private long lastActionBarAt;
+
+        private Title title;
+
+        private Outbound(@NotNull Player player) {
+            this.player = player;
+        }
+
+        /**
+         * Sends or queues a chat message.
+         * @return Whether the message was queued and needs a flush.
+         */
+        private synchronized boolean chat(@NotNull Component message) {
+            long now = System.nanoTime();
+            if (message.equals(lastChat) && (!chat.isEmpty() || now - lastChatAt <= dedupeWindow)) {
+                coalesced.increment();
+                return false;
+            }
+
+            lastChat = message;
+            lastChatAt = now;
+
+            refill(now);
+            if (chat.isEmpty() && tokens >= 1) {
+                tokens--;
+                deliver(message);
+                return false;
+            }
+
+            if (chat.size() >= maxQueued) {
+                if (maxQueued == 0) {
+                    dropped.increment();
+                    return false;
+                }
+
+                chat.poll();
+                dropped.increment();
+            }
+
+            chat.add(message);
+            return true;
+        }
+
+        private synchronized void actionBar(@NotNull Component message) {
+            if (actionBar != null) coalesced.increment();
+            actionBar = message;
+        }
+
+        private synchronized void title(@NotNull Title title) {
+            if (this.title != null) coalesced.increment();
+            this.title = title;
+        }
+
+        /**
+         * Sends the queued messages the rate allows, and the latest action bar and title.
+         * @return Whether nothing is left in the queue.
+         */
+        private synchronized boolean flush() {
+            long now = System.nanoTime();
+
+            refill(now);
+            while (!chat.isEmpty() && tokens >= 1) {
+                tokens--;
+                deliver(chat.poll());
+            }
+
+            if (actionBar != null) {
+                // Resending the displayed action bar only keeps it visible, which the window allows for.
+                if (actionBar.equals(lastActionBar) && now - lastActionBarAt <= dedupeWindow) {
+                    coalesced.increment();
+                } else {
+                    player.sendActionBar(actionBar);
+                    sent.increment();
+
+                    lastActionBar = actionBar;
+                    lastActionBarAt = now;
+                }
+
+                actionBar = null;
+            }
+
+            if (title != null) {
+                player.showTitle(title);
+                sent.increment();
+                title = null;
+            }
+
+            return chat.isEmpty();
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + ((now - refilledAt) / 1_000_000_000D) * messagesPerSecond);
+            refilledAt = now;
+        }
+
+        private void deliver(@NotNull Component message) {
+            player.sendMessage(message);
+            sent.increment();
+        }
+    }
+}
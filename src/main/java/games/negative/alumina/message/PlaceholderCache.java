@@ -0,0 +1,192 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.message;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The PlaceholderCache class caches the PlaceholderAPI placeholders resolved by {@link Message}, per player and placeholder.
+ * <p>
+ * Nothing is cached by default. Set a time to live for expensive placeholders, such as balances or statistics,
+ * to bound how often their expansion runs. The cached values of a player are removed when the player quits,
+ * and nothing is cached for players who are offline.
+ */
+public class PlaceholderCache {
+
+    /*
+     * Placeholders resolved without a player, such as for broadcasts, are cached under this id.
+     */
+    private static final UUID NO_PLAYER = new UUID(0, 0);
+
+    private static final Map<UUID, Map<String, Resolved>> cache = Maps.newConcurrentMap();
+
+    /*
+     * Time to live in nanoseconds, by placeholder such as "%vault_eco_balance%" or by identifier such as "vault".
+     */
+    private static final Map<String, Long> ttls = Maps.newConcurrentMap();
+    private static volatile long defaultTtl;
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+
+    /**
+     * Sets how long the value of a placeholder is cached.
+     * @param placeholder The placeholder including its percent signs, such as "%vault_eco_balance%",
+     *                    or the identifier of an expansion, such as "vault", to cover all of its placeholders.
+     * @param ttl How long the value is cached, zero to never cache it.
+     */
+    public static void setTtl(@NotNull String placeholder, @NotNull Duration ttl) {
+        Preconditions.checkNotNull(placeholder, "Placeholder cannot be null.");
+        Preconditions.checkNotNull(ttl, "TTL cannot be null.");
+        Preconditions.checkArgument(!ttl.isNegative(), "TTL cannot be negative.");
+
+        ttls.put(placeholder.toLowerCase(Locale.ROOT), ttl.toNanos());
+    }
+
+    /**
+     * Sets how long the values of placeholders without their own time to live are cached.
+     * @param ttl How long the values are cached, zero to never cache them.
+     */
+    public static void setDefaultTtl(@NotNull Duration ttl) {
+        Preconditions.checkNotNull(ttl, "TTL cannot be null.");
+        Preconditions.checkArgument(!ttl.isNegative(), "TTL cannot be negative.");
+
+        defaultTtl = ttl.toNanos();
+    }
+
+    /**
+     * Resolves a single placeholder for the given player, using the cached value if it did not expire.
+     * @param player The player to resolve the placeholder for, or null to resolve it without a player.
+     * @param placeholder The placeholder including its percent signs.
+     * @return The resolved value, or the placeholder itself if it is unknown to PlaceholderAPI.
+     */
+    @NotNull
+    public static String resolve(@Nullable Player player, @NotNull String placeholder) {
+        Preconditions.checkNotNull(placeholder, "Placeholder cannot be null.");
+
+        long ttl = ttl(placeholder);
+        if (ttl <= 0 || (player != null && !player.isOnline())) return me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, placeholder);
+
+        UUID uuid = (player == null ? NO_PLAYER : player.getUniqueId());
+        Map<String, Resolved> values = cache.computeIfAbsent(uuid, key -> Maps.newConcurrentMap());
+
+        long now = System.nanoTime();
+        Resolved resolved = values.get(placeholder);
+        if (resolved != null && now - resolved.expiresAt() < 0) {
+            hits.increment();
+            return resolved.value();
+        }
+
+        misses.increment();
+
+        String value = me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, placeholder);
+        values.put(placeholder, new Resolved(value, now + ttl));
+
+        // An asynchronous resolve may finish after the player quit, which must not keep their values around.
+        if (player != null && !player.isOnline()) cache.remove(uuid, values);
+
+        return value;
+    }
+
+    /**
+     * Removes every cached value of the given player.
+     * @param uuid The unique id of the player.
+     */
+    public static void invalidate(@NotNull UUID uuid) {
+        Preconditions.checkNotNull(uuid, "UUID cannot be null.");
+
+        cache.remove(uuid);
+    }
+
+    /**
+     * Removes the cached values of the given placeholder for every player.
+     * @param placeholder The placeholder including its percent signs.
+     */
+    public static void invalidate(@NotNull String placeholder) {
+        Preconditions.checkNotNull(placeholder, "Placeholder cannot be null.");
+
+        for (Map<String, Resolved> values : cache.values()) {
+            values.remove(placeholder);
+        }
+    }
+
+    /**
+     * Removes every cached value.
+     */
+    public static void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Returns the amount of placeholders which were resolved from the cache.
+     * @return The amount of cache hits.
+     */
+    public static long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the amount of cacheable placeholders which had to be resolved by PlaceholderAPI.
+     * @return The amount of cache misses.
+     */
+    public static long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Finds the time to live of the given placeholder, by placeholder first and by identifier second.
+     */
+    private static long ttl(@NotNull String placeholder) {
+        if (ttls.isEmpty()) return defaultTtl;
+
+        String lower = placeholder.toLowerCase(Locale.ROOT);
+        Long ttl = ttls.get(lower);
+        if (ttl != null) return ttl;
+
+        int separator = lower.indexOf('_');
+        if (separator > 1) {
+            ttl = ttls.get(lower.substring(1, separator));
+            if (ttl != null) return ttl;
+        }
+
+        return defaultTtl;
+    }
+
+    private record Resolved(String value, long expiresAt) {
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.message;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Represents a set of placeholder keys compiled into an Aho-Corasick automaton, which replaces
+ * every key of a string in a single pass.
+ * <p>
+ * Keys are matched literally. When keys overlap, the leftmost match wins, and the longest key wins
+ * between matches starting at the same index.
+ */
+public final class PlaceholderReplacer {
+
+    private final String[] keys;
+
+    /*
+     * Transitions of every state, sorted by character.
+     */
+    private final char[][] labels;
+    private final int[][] targets;
+
+    private final int[] fail;
+    private final int[] key;
+    private final int[] output;
+    private final int[] depth;
+
+    /*
+     * Length of the longest key, no key can start further back than this from where it ends.
+     */
+    private final int longest;
+
+    /**
+     * Compiles the given keys.
+     * @param keys Keys to replace, none of them can be null or empty.
+     */
+    public PlaceholderReplacer(@NotNull final String... keys) {
+        Preconditions.checkNotNull(keys, "Keys cannot be null.");
+
+        this.keys = keys.clone();
+
+        int longest = 0;
+
+        List<TreeMap<Character, Integer>> trie = Lists.newArrayList();
+        List<Integer> ends = Lists.newArrayList();
+        trie.add(new TreeMap<>());
+        ends.add(-1);
+
+        for (int i = 0; i < keys.length; i++) {
+            String value = keys[i];
+            Preconditions.checkArgument(value != null && !value.isEmpty(), "Keys cannot be null or empty.");
+            longest = Math.max(longest, value.length());
+
+            int state = 0;
+            for (int j = 0; j < value.length(); j++) {
+                Integer next = trie.get(state).get(value.charAt(j));
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(value.charAt(j), next);
+                    trie.add(new TreeMap<>());
+                    ends.add(-1);
+                }
+
+                state = next;
+            }
+
+            if (ends.get(state) == -1) ends.set(state, i);
+        }
+
+        this.longest = longest;
+
+        int states = trie.size();
+        this.labels = new char[states][];
+        this.targets = new int[states][];
+        this.fail = new int[states];
+        this.key = new int[states];
+        this.output = new int[states];
+        this.depth = new int[states];
+
+        for (int state = 0; state < states; state++) {
+            TreeMap<Character, Integer> transitions = trie.get(state);
+            labels[state] = new char[transitions.size()];
+            targets[state] = new int[transitions.size()];
+
+            int index = 0;
+            for (Map.Entry<Character, Integer> entry : transitions.entrySet()) {
+                labels[state][index] = entry.getKey();
+                targets[state][index++] = entry.getValue();
+            }
+
+            key[state] = ends.get(state);
+        }
+
+        // Breadth-first, so the failure links of shorter prefixes are known first.
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        output[0] = -1;
+        for (int target : targets[0]) {
+            output[target] = -1;
+            depth[target] = 1;
+            queue.add(target);
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < labels[state].length; i++) {
+                int target = targets[state][i];
+                depth[target] = depth[state] + 1;
+
+                int link = fail[state];
+                while (link != 0 && transition(link, labels[state][i]) == -1)
+                    link = fail[link];
+
+                int next = transition(link, labels[state][i]);
+                fail[target] = (next == -1 ? 0 : next);
+                output[target] = (key[fail[target]] != -1 ? fail[target] : output[fail[target]]);
+
+                queue.add(target);
+            }
+        }
+    }
+
+    /**
+     * Replaces every key in the given input.
+     * @param input Input to replace the keys in.
+     * @param replacements Replacement of every key by index, keys with a null replacement are kept.
+     * @return The input with every key replaced.
+     */
+    @NotNull
+    public String replace(@NotNull final String input, @NotNull final String... replacements) {
+        Preconditions.checkNotNull(input, "Input cannot be null.");
+        Preconditions.checkArgument(replacements.length == keys.length, "Replacements must match the keys.");
+
+        // Longest key with a replacement by start index, in a ring as no key starts further back than the longest key.
+        int[] lengths = null;
+        int[] indexes = null;
+
+        StringBuilder builder = null;
+        int position = 0;
+        int cursor = 0;
+
+        int state = 0;
+        int length = input.length();
+        for (int i = 0; i <= length; i++) {
+            int frontier = length;
+            if (i < length) {
+                char c = input.charAt(i);
+
+                int next;
+                while ((next = transition(state, c)) == -1 && state != 0)
+                    state = fail[state];
+
+                state = (next == -1 ? 0 : next);
+
+                // Keys found later start within the current state, so nothing can start before it anymore.
+                frontier = i + 1 - depth[state];
+            }
+
+            // The keys starting before the frontier can no longer be extended, replace them leftmost first.
+            if (lengths != null) {
+                for (; cursor < frontier; cursor++) {
+                    int slot = cursor % longest;
+                    int matched = lengths[slot];
+                    if (matched == 0) continue;
+
+                    lengths[slot] = 0;
+                    if (cursor < position) continue;
+
+                    if (builder == null) builder = new StringBuilder(length + 16);
+                    builder.append(input, position, cursor).append(replacements[indexes[slot]]);
+                    position = cursor + matched;
+                }
+            }
+
+            cursor = frontier;
+            if (i == length) break;
+
+            for (int match = (key[state] != -1 ? state : output[state]); match > 0; match = output[match]) {
+                int index = key[match];
+                if (replacements[index] == null) continue;
+
+                int matched = keys[index].length();
+                int start = i + 1 - matched;
+                if (start < position) continue;
+
+                if (lengths == null) {
+                    lengths = new int[longest];
+                    indexes = new int[longest];
+                }
+
+                int slot = start % longest;
+                if (matched > lengths[slot]) {
+                    lengths[slot] = matched;
+                    indexes[slot] = index;
+                }
+            }
+        }
+
+        if (builder == null) return input;
+
+        return builder.append(input, position, length).toString();
+    }
+
+    /**
+     * Checks whether this replacer was compiled from the given keys.
+     * @param keys Keys to compare.
+     * @return Whether the keys are equal and in the same order.
+     */
+    boolean compiledFrom(@NotNull final String[] keys) {
+        return Arrays.equals(this.keys, keys);
+    }
+
+    /**
+     * Gets the keys of the replacer.
+     * @return Copy of the keys.
+     */
+    @NotNull
+    public String[] keys() {
+        return keys.clone();
+    }
+
+    private int transition(final int state, final char c) {
+        int index = Arrays.binarySearch(labels[state], c);
+        return (index < 0 ? -1 : targets[state][index]);
+    }
+}
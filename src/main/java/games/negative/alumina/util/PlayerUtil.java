@@ -31,12 +31,12 @@ import com.google.common.collect.Lists;
 import com.google.gson.JsonObject;
 import games.negative.alumina.future.BukkitCompletableFuture;
 import games.negative.alumina.future.BukkitFuture;
+import games.negative.alumina.message.MessageQueue;
 import lombok.experimental.UtilityClass;
 import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.title.Title;
 import net.kyori.adventure.title.TitlePart;
-import net.md_5.bungee.api.ChatMessageType;
-import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.OfflinePlayer;
@@ -329,7 +329,7 @@ public class PlayerUtil {
     }
 
     /**
-     * Sends an action bar message to a player.
+     * Sends an action bar message to a player through the {@link MessageQueue}.
      *
      * @param player The player to send the action bar message to.
      * @param message The message to be displayed in the action bar.
@@ -341,11 +341,11 @@ public class PlayerUtil {
         Preconditions.checkNotNull(player, "'player' cannot be null!");
         Preconditions.checkNotNull(message, "'message' cannot be null!");
 
-        player.spigot().sendMessage(ChatMessageType.ACTION_BAR, new TextComponent(message));
+        MessageQueue.sendActionBar(player, Component.text(message));
     }
 
     /**
-     * Sends an action bar message to the specified audience.
+     * Sends an action bar message to the specified audience, through the {@link MessageQueue} if the audience is a player.
      *
      * @param audience the audience to send the action bar message to
      * @param message the message to be displayed in the action bar
@@ -355,6 +355,11 @@ public class PlayerUtil {
         Preconditions.checkNotNull(audience, "'audience' cannot be null!");
         Preconditions.checkNotNull(message, "'message' cannot be null!");
 
+        if (audience instanceof Player player) {
+            MessageQueue.sendActionBar(player, MiniMessageUtil.translate(message));
+            return;
+        }
+
         audience.sendActionBar(MiniMessageUtil.translate(message));
     }
 
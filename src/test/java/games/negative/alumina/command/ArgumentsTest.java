@@ -0,0 +1,115 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.command;
+
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ArgumentsTest {
+
+    private static final CommandSender SENDER = (CommandSender) Proxy.newProxyInstance(ArgumentsTest.class.getClassLoader(), new Class<?>[]{CommandSender.class}, (proxy, method, args) -> null);
+
+    private enum Mode {
+        SURVIVAL, CREATIVE, SPECTATOR
+    }
+
+    @Test
+    public void parsesIntegers() {
+        assertEquals(42, Arguments.integer().parse(SENDER, "42"));
+        assertEquals(-7, Arguments.integer().parse(SENDER, "-7"));
+        assertThrows(ArgumentException.class, () -> Arguments.integer().parse(SENDER, "4.2"));
+        assertThrows(ArgumentException.class, () -> Arguments.integer().parse(SENDER, "abc"));
+    }
+
+    @Test
+    public void rejectsIntegersOutsideOfTheRange() {
+        ArgumentParser<Integer> parser = Arguments.integer(1, 5);
+
+        assertEquals(1, parser.parse(SENDER, "1"));
+        assertEquals(5, parser.parse(SENDER, "5"));
+        assertThrows(ArgumentException.class, () -> parser.parse(SENDER, "0"));
+        assertThrows(ArgumentException.class, () -> parser.parse(SENDER, "6"));
+        assertThrows(IllegalArgumentException.class, () -> Arguments.integer(5, 1));
+    }
+
+    @Test
+    public void completesSmallIntegerRangesOnly() {
+        assertEquals(List.of("1", "2", "3"), Arguments.integer(1, 3).complete(SENDER, ""));
+        assertEquals(List.of("10", "11", "12"), Arguments.integer(8, 12).complete(SENDER, "1"));
+        assertTrue(Arguments.integer().complete(SENDER, "").isEmpty());
+    }
+
+    @Test
+    public void parsesDurations() {
+        assertEquals(Duration.ofMinutes(90), Arguments.duration().parse(SENDER, "1h30m"));
+        assertEquals(Duration.ofDays(14), Arguments.duration().parse(SENDER, "2w"));
+        assertThrows(ArgumentException.class, () -> Arguments.duration().parse(SENDER, "90"));
+        assertThrows(ArgumentException.class, () -> Arguments.duration().parse(SENDER, "1x"));
+        assertThrows(ArgumentException.class, () -> Arguments.duration().parse(SENDER, ""));
+    }
+
+    @Test
+    public void completesDurationUnits() {
+        assertEquals(List.of("5s", "5m", "5h", "5d", "5w"), Arguments.duration().complete(SENDER, "5"));
+        assertTrue(Arguments.duration().complete(SENDER, "5m").isEmpty());
+    }
+
+    @Test
+    public void parsesUniqueIds() {
+        UUID uuid = UUID.randomUUID();
+
+        assertEquals(uuid, Arguments.uuid().parse(SENDER, uuid.toString()));
+        assertThrows(ArgumentException.class, () -> Arguments.uuid().parse(SENDER, "not-a-uuid"));
+    }
+
+    @Test
+    public void parsesEnumsIgnoringCase() {
+        ArgumentParser<Mode> parser = Arguments.enumeration(Mode.class);
+
+        assertEquals(Mode.CREATIVE, parser.parse(SENDER, "creative"));
+        assertEquals(Mode.SPECTATOR, parser.parse(SENDER, "SpEcTaToR"));
+        assertThrows(ArgumentException.class, () -> parser.parse(SENDER, "adventure"));
+        assertEquals(List.of("survival", "spectator"), parser.complete(SENDER, "S"));
+        assertSame(parser, Arguments.enumeration(Mode.class));
+    }
+
+    @Test
+    public void acceptsAnyString() {
+        assertEquals("anything goes", Arguments.string().parse(SENDER, "anything goes"));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.command;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CommandTest {
+
+    private static final CommandSender SENDER = (CommandSender) Proxy.newProxyInstance(CommandTest.class.getClassLoader(), new Class<?>[]{CommandSender.class}, (proxy, method, args) -> switch (method.getName()) {
+        case "hasPermission" -> true;
+        case "getName" -> "tester";
+        default -> null;
+    });
+
+    private enum Mode {
+        SURVIVAL, CREATIVE
+    }
+
+    @Test
+    public void rejectsDuplicateParameterNames() {
+        CommandProperties properties = CommandProperties.builder()
+                .name("give")
+                .arguments(List.of(Parameter.required("amount", Arguments.integer()), Parameter.optional("amount", Arguments.integer())))
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> command(properties));
+    }
+
+    @Test
+    public void suggestsSubcommandsBeforeArguments() {
+        Command root = command(CommandProperties.builder()
+                .name("game")
+                .smartTabComplete(true)
+                .arguments(List.of(Parameter.required("mode", Arguments.enumeration(Mode.class))))
+                .build());
+        root.addSubCommand(command(CommandProperties.builder().name("start").build()));
+
+        assertEquals(List.of("start"), root.tabComplete(SENDER, "game", new String[]{""}));
+        assertEquals(List.of("survival"), root.tabComplete(SENDER, "game", new String[]{"su"}));
+    }
+
+    @Test
+    public void completesArgumentsWithoutSmartTabComplete() {
+        Command root = command(CommandProperties.builder()
+                .name("game")
+                .arguments(List.of(Parameter.required("mode", Arguments.enumeration(Mode.class))))
+                .build());
+        root.addSubCommand(command(CommandProperties.builder().name("start").build()));
+
+        assertEquals(List.of("survival", "creative"), root.tabComplete(SENDER, "game", new String[]{""}));
+    }
+
+    @NotNull
+    private static Command command(@NotNull CommandProperties properties) {
+        return new Command(properties) {
+            @Override
+            public void execute(@NotNull Context context) {
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.command;
+
+import com.google.common.collect.Lists;
+import org.bukkit.command.CommandSender;
+import org.bukkit.permissions.Permission;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompletionTreeTest {
+
+    private Command root;
+    private Command admin;
+    private Command reload;
+    private Command user;
+    private Command profile;
+
+    @BeforeEach
+    public void setUp() {
+        root = command(CommandProperties.builder().name("root").smartTabComplete(true).build());
+        admin = command(CommandProperties.builder().name("admin").permissions(List.of(new Permission("root.admin"))).build());
+        reload = command(CommandProperties.builder().name("reload").build());
+        user = command(CommandProperties.builder().name("user").aliases(List.of("u")).build());
+        profile = command(CommandProperties.builder().name("profile").params(List.of("player")).build());
+
+        admin.addSubCommand(reload);
+        user.addSubCommand(profile);
+        root.addSubCommand(admin);
+        root.addSubCommand(user);
+    }
+
+    @Test
+    public void findsSubcommandsOfTheirParentOnly() {
+        CompletionTree tree = CompletionTree.of(root);
+
+        assertSame(admin, tree.find(root, "ADMIN"));
+        assertSame(user, tree.find(root, "u"));
+        assertSame(reload, tree.find(admin, "reload"));
+        assertNull(tree.find(root, "reload"));
+        assertNull(tree.find(user, "reload"));
+    }
+
+    @Test
+    public void completesLabelsContainingTheArgument() {
+        CompletionTree tree = CompletionTree.of(root);
+
+        List<String> result = Lists.newArrayList();
+        tree.complete(root, "u", command -> true, result);
+
+        assertEquals(List.of("user", "u"), result);
+    }
+
+    @Test
+    public void suggestsSubcommandsOfTheTypedPath() {
+        assertEquals(List.of("profile"), root.tabComplete(sender("root.admin"), "root", new String[]{"user", ""}));
+        assertEquals(List.of("reload"), root.tabComplete(sender("root.admin"), "root", new String[]{"admin", ""}));
+    }
+
+    @Test
+    public void hidesSubcommandsWithoutPermission() {
+        assertEquals(List.of("user", "u"), root.tabComplete(sender(), "root", new String[]{""}));
+        assertTrue(root.tabComplete(sender("root.admin"), "root", new String[]{""}).contains("admin"));
+        assertTrue(root.tabComplete(sender(), "root", new String[]{"admin", ""}).isEmpty());
+    }
+
+    @Test
+    public void suggestsParametersOfTheTypedSubcommand() {
+        assertEquals(List.of("[<player>]"), root.tabComplete(sender(), "root", new String[]{"user", "profile", ""}));
+    }
+
+    @Test
+    public void followsAliasesChangedLater() {
+        user.setAliases(List.of("member"));
+
+        assertEquals(List.of("profile"), root.tabComplete(sender(), "root", new String[]{"member", ""}));
+        assertSame(user, root.getAvailableSubCommand("member"));
+        assertNull(root.getAvailableSubCommand("u"));
+    }
+
+    @NotNull
+    private static Command command(@NotNull CommandProperties properties) {
+        return new Command(properties) {
+            @Override
+            public void execute(@NotNull Context context) {
+            }
+        };
+    }
+
+    /**
+     * Creates a sender which only has the given permissions.
+     */
+    @NotNull
+    private static CommandSender sender(@NotNull String... permissions) {
+        Set<String> granted = Set.of(permissions);
+        return (CommandSender) Proxy.newProxyInstance(CompletionTreeTest.class.getClassLoader(), new Class<?>[]{CommandSender.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "hasPermission" -> granted.contains(args[0] instanceof Permission permission ? permission.getName() : String.valueOf(args[0]));
+            case "getName" -> "tester";
+            default -> null;
+        });
+    }
+}
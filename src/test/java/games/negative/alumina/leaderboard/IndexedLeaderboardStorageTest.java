@@ -0,0 +1,184 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class IndexedLeaderboardStorageTest {
+
+    @Test
+    public void ranksAndSelectsEntries() {
+        IndexedLeaderboardStorage<String, Integer> storage = new IndexedLeaderboardStorage<>(LeaderboardComparingType.HIGHEST_TO_LOWEST);
+        storage.put("a", 10);
+        storage.put("b", 30);
+        storage.put("c", 20);
+
+        assertEquals(1, storage.position("b"));
+        assertEquals(2, storage.position("c"));
+        assertEquals(3, storage.position("a"));
+        assertEquals(-1, storage.position("d"));
+
+        assertEquals("b", storage.entry(1).key());
+        assertEquals("a", storage.entry(3).key());
+        assertNull(storage.entry(0));
+        assertNull(storage.entry(4));
+    }
+
+    @Test
+    public void keepsTheOrderOfInsertionForEqualValues() {
+        IndexedLeaderboardStorage<String, Integer> storage = new IndexedLeaderboardStorage<>(LeaderboardComparingType.LOWEST_TO_HIGHEST);
+        storage.put("first", 5);
+        storage.put("second", 5);
+        storage.put("third", 5);
+
+        assertEquals(List.of("first", "second", "third"), keys(storage.range(1, 3)));
+
+        // Repositioning an entry with a new value places it after the entries which already had that value.
+        storage.put("first", 4);
+        storage.put("first", 5);
+        assertEquals(List.of("second", "third", "first"), keys(storage.range(1, 3)));
+    }
+
+    @Test
+    public void returnsRangesWithinBounds() {
+        IndexedLeaderboardStorage<String, Integer> storage = new IndexedLeaderboardStorage<>(LeaderboardComparingType.HIGHEST_TO_LOWEST);
+        for (int i = 1; i <= 10; i++) {
+            storage.put("key" + i, i);
+        }
+
+        assertEquals(List.of("key10", "key9", "key8"), keys(storage.range(1, 3)));
+        assertEquals(List.of("key2", "key1"), keys(storage.range(9, 20)));
+        assertEquals(List.of("key10"), keys(storage.range(-5, 1)));
+        assertEquals(List.of(), keys(storage.range(5, 4)));
+    }
+
+    @Test
+    public void repositionsAndRemovesEntries() {
+        IndexedLeaderboardStorage<String, Integer> storage = new IndexedLeaderboardStorage<>(LeaderboardComparingType.HIGHEST_TO_LOWEST);
+        storage.put("a", 1);
+        storage.put("b", 2);
+
+        assertEquals(1, storage.put("a", 3));
+        assertEquals(1, storage.position("a"));
+        assertEquals(3, storage.value("a"));
+
+        assertEquals(3, storage.remove("a"));
+        assertNull(storage.remove("a"));
+        assertEquals(1, storage.size());
+        assertEquals(1, storage.position("b"));
+    }
+
+    @Test
+    public void countsChangedEntriesOfPutAll() {
+        IndexedLeaderboardStorage<String, Integer> storage = new IndexedLeaderboardStorage<>(LeaderboardComparingType.HIGHEST_TO_LOWEST);
+        storage.putAll(Map.of("a", 1, "b", 2, "c", 3));
+
+        Map<String, Integer> values = Maps.newLinkedHashMap();
+        values.put("a", 1);
+        values.put("b", 5);
+        values.put("d", 4);
+
+        assertEquals(2, storage.putAll(values));
+        assertEquals(List.of("b", "d", "c", "a"), keys(storage.range(1, 4)));
+    }
+
+    @Test
+    public void keepsSnapshotsUnchanged() {
+        IndexedLeaderboardStorage<String, Integer> storage = new IndexedLeaderboardStorage<>(LeaderboardComparingType.HIGHEST_TO_LOWEST);
+        storage.put("a", 1);
+        storage.put("b", 2);
+
+        LeaderboardSnapshot<String, Integer> snapshot = storage.snapshot(1);
+        storage.put("c", 3);
+        storage.remove("b");
+
+        assertEquals(List.of("b", "a"), keys(snapshot.entries()));
+        assertEquals(1, snapshot.position("b"));
+        assertEquals(-1, snapshot.position("c"));
+        assertEquals(List.of("c", "a"), keys(storage.range(1, 2)));
+    }
+
+    @Test
+    public void matchesASortedList() {
+        Random random = new Random(42);
+        IndexedLeaderboardStorage<Integer, Integer> storage = new IndexedLeaderboardStorage<>(LeaderboardComparingType.HIGHEST_TO_LOWEST);
+        Map<Integer, Integer> expected = Maps.newHashMap();
+
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(500);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    storage.remove(key);
+                    expected.remove(key);
+                }
+                case 1 -> {
+                    Map<Integer, Integer> batch = Maps.newHashMap();
+                    for (int j = 0; j < 10; j++) {
+                        batch.put(random.nextInt(500), random.nextInt(100));
+                    }
+
+                    storage.putAll(batch);
+                    expected.putAll(batch);
+                }
+                default -> {
+                    int value = random.nextInt(100);
+                    storage.put(key, value);
+                    expected.put(key, value);
+                }
+            }
+        }
+
+        List<Integer> values = Lists.newArrayList(expected.values());
+        values.sort(LeaderboardComparingType.HIGHEST_TO_LOWEST.comparator());
+
+        assertEquals(expected.size(), storage.size());
+        for (int position = 1; position <= values.size(); position++) {
+            LeaderboardEntry<Integer, Integer> entry = storage.entry(position);
+            assertEquals(values.get(position - 1), entry.value());
+            assertEquals(position, storage.position(entry.key()));
+            assertEquals(expected.get(entry.key()), entry.value());
+        }
+    }
+
+    private static <K> List<K> keys(List<? extends LeaderboardEntry<K, ?>> entries) {
+        List<K> keys = Lists.newArrayList();
+        for (LeaderboardEntry<K, ?> entry : entries) {
+            keys.add(entry.key());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LeaderboardPersistenceTest {
+
+    @TempDir
+    File folder;
+
+    @Test
+    public void roundTripsEveryCodec() throws IOException {
+        UUID id = UUID.randomUUID();
+
+        assertEquals(id, roundTrip(LeaderboardCodec.UNIQUE_ID, id));
+        assertEquals("", roundTrip(LeaderboardCodec.STRING, ""));
+        assertEquals("\u00dcn\u00efc\u00f6d\u00e9 \u2713", roundTrip(LeaderboardCodec.STRING, "\u00dcn\u00efc\u00f6d\u00e9 \u2713"));
+        assertEquals(Integer.MIN_VALUE, roundTrip(LeaderboardCodec.INTEGER, Integer.MIN_VALUE));
+        assertEquals(Long.MAX_VALUE, roundTrip(LeaderboardCodec.LONG, Long.MAX_VALUE));
+        assertEquals(-0.5D, roundTrip(LeaderboardCodec.DOUBLE, -0.5D));
+    }
+
+    @Test
+    public void rejectsInvalidStringLengths() {
+        ByteBuffer buffer = ByteBuffer.allocate(8).putInt(100).putInt(0).flip();
+
+        assertThrows(IllegalArgumentException.class, () -> LeaderboardCodec.STRING.decode(buffer));
+    }
+
+    @Test
+    public void savesAndLoadsEntries() throws IOException {
+        File file = new File(folder, "coins.dat");
+
+        TestLeaderboard source = new TestLeaderboard(LeaderboardComparingType.HIGHEST_TO_LOWEST);
+        source.offerAll(Map.of("a", 10, "b", 30, "c", 20));
+        new LeaderboardPersistence<>(source, file, LeaderboardCodec.STRING, LeaderboardCodec.INTEGER).save();
+
+        TestLeaderboard target = new TestLeaderboard(LeaderboardComparingType.HIGHEST_TO_LOWEST);
+        assertTrue(new LeaderboardPersistence<>(target, file, LeaderboardCodec.STRING, LeaderboardCodec.INTEGER).load());
+
+        assertEquals(List.of("b", "c", "a"), target.snapshot().entries().stream().map(LeaderboardEntry::key).toList());
+        assertEquals(20, target.snapshot().get(2).value());
+
+        LeaderboardMerger.Shard<String, Integer> shard = LeaderboardPersistence.read(file, LeaderboardCodec.STRING, LeaderboardCodec.INTEGER);
+        assertEquals(LeaderboardComparingType.HIGHEST_TO_LOWEST, shard.comparing());
+        assertEquals(3, shard.entries().size());
+    }
+
+    @Test
+    public void skipsMissingFiles() throws IOException {
+        TestLeaderboard leaderboard = new TestLeaderboard(LeaderboardComparingType.HIGHEST_TO_LOWEST);
+
+        assertFalse(new LeaderboardPersistence<>(leaderboard, new File(folder, "missing.dat"), LeaderboardCodec.STRING, LeaderboardCodec.INTEGER).load());
+    }
+
+    @Test
+    public void rejectsAnotherComparingType() throws IOException {
+        File file = new File(folder, "coins.dat");
+
+        TestLeaderboard source = new TestLeaderboard(LeaderboardComparingType.HIGHEST_TO_LOWEST);
+        source.offer("a", 1);
+        new LeaderboardPersistence<>(source, file, LeaderboardCodec.STRING, LeaderboardCodec.INTEGER).save();
+
+        TestLeaderboard target = new TestLeaderboard(LeaderboardComparingType.LOWEST_TO_HIGHEST);
+        assertThrows(IOException.class, () -> new LeaderboardPersistence<>(target, file, LeaderboardCodec.STRING, LeaderboardCodec.INTEGER).load());
+    }
+
+    @Test
+    public void rejectsCorruptFiles() throws IOException {
+        File file = new File(folder, "coins.dat");
+
+        TestLeaderboard source = new TestLeaderboard(LeaderboardComparingType.HIGHEST_TO_LOWEST);
+        source.offerAll(Map.of("a", 1, "b", 2));
+        new LeaderboardPersistence<>(source, file, LeaderboardCodec.STRING, LeaderboardCodec.INTEGER).save();
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+
+        // Magic, format, comparing type and timestamp come before the entry count.
+        ByteBuffer.wrap(bytes).putInt(17, -1);
+        Files.write(file.toPath(), bytes);
+        assertThrows(IOException.class, () -> LeaderboardPersistence.read(file, LeaderboardCodec.STRING, LeaderboardCodec.INTEGER));
+
+        Files.write(file.toPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> LeaderboardPersistence.read(file, LeaderboardCodec.STRING, LeaderboardCodec.INTEGER));
+    }
+
+    private static <T> T roundTrip(@NotNull final LeaderboardCodec<T> codec, @NotNull final T value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            codec.encode(output, value);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        T decoded = codec.decode(buffer);
+        assertFalse(buffer.hasRemaining());
+        return decoded;
+    }
+
+    private static final class TestLeaderboard extends Leaderboard<String, Integer> {
+
+        private TestLeaderboard(@NotNull final LeaderboardComparingType comparing) {
+            super("test", comparing);
+        }
+
+        @Override
+        public Integer getValue(@NotNull final String key) {
+            return 0;
+        }
+
+        @NotNull
+        @Override
+        public String parseKey(@NotNull final String key) {
+            return key;
+        }
+
+        @NotNull
+        @Override
+        public String parseValue(@NotNull final Integer value) {
+            return String.valueOf(value);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LeaderboardTest {
+
+    @Test
+    public void countsEveryValueOfABoundedLeaderboardInTheHistogram() {
+        TestLeaderboard leaderboard = new TestLeaderboard(10);
+        LeaderboardHistogram histogram = new LeaderboardHistogram(0, 100, 100);
+        leaderboard.attachHistogram(histogram, Integer::doubleValue);
+
+        List<String> keys = Lists.newArrayList();
+        for (int i = 0; i < 100; i++) {
+            keys.add("key" + i);
+            leaderboard.values.put("key" + i, i);
+        }
+
+        leaderboard.update(keys, true);
+        leaderboard.update();
+
+        assertEquals(10, leaderboard.size());
+        assertEquals(100, histogram.count());
+
+        // Offers outside of the kept entries are counted again by the next full update.
+        for (int i = 0; i < 10; i++)
+            leaderboard.offer("key5", 6 + i);
+
+        assertEquals(100, histogram.count());
+
+        leaderboard.offer("key95", 42);
+        assertEquals(100, histogram.count());
+    }
+
+    @Test
+    public void ranksKeysOutsideOfABoundedLeaderboard() {
+        TestLeaderboard leaderboard = new TestLeaderboard(10);
+        LeaderboardHistogram histogram = new LeaderboardHistogram(0, 100, 100);
+
+        List<String> keys = Lists.newArrayList();
+        for (int i = 0; i < 100; i++) {
+            keys.add("key" + i);
+            leaderboard.values.put("key" + i, i);
+        }
+
+        leaderboard.update(keys, true);
+        leaderboard.values.put("other", 50);
+
+        // Without a histogram the key is placed right behind the kept entries.
+        assertEquals(11, leaderboard.computePosition("other").join().position());
+        assertEquals(50, leaderboard.computeExactPosition("other").join().position());
+        assertEquals(1, leaderboard.computeExactPosition("key99").join().position());
+
+        leaderboard.attachHistogram(histogram, Integer::doubleValue);
+        leaderboard.update();
+
+        int estimated = leaderboard.computePosition("other").join().position();
+        assertTrue(Math.abs(estimated - 50) <= 1, "Estimated position " + estimated);
+    }
+
+    private static final class TestLeaderboard extends Leaderboard<String, Integer> {
+
+        private final Map<String, Integer> values = Maps.newHashMap();
+
+        private TestLeaderboard(final int capacity) {
+            super("test", LeaderboardComparingType.HIGHEST_TO_LOWEST, capacity);
+        }
+
+        @Override
+        public Integer getValue(@NotNull final String key) {
+            return values.get(key);
+        }
+
+        @NotNull
+        @Override
+        protected Executor executor() {
+            return Runnable::run;
+        }
+
+        @NotNull
+        @Override
+        public String parseKey(@NotNull final String key) {
+            return key;
+        }
+
+        @NotNull
+        @Override
+        public String parseValue(@NotNull final Integer value) {
+            return String.valueOf(value);
+        }
+    }
+}
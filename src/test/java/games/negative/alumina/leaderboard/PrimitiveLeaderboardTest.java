@@ -0,0 +1,228 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.leaderboard;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrimitiveLeaderboardTest {
+
+    private static final int DEPTH = 10;
+
+    @Test
+    public void repositionsSingleEntries() {
+        TestLeaderboard leaderboard = new TestLeaderboard(LeaderboardComparingType.HIGHEST_TO_LOWEST);
+        leaderboard.offer("a", 10);
+        leaderboard.offer("b", 30);
+        leaderboard.offer("c", 20);
+        leaderboard.offer("d", 20);
+
+        assertEquals(List.of("b", "c", "d", "a"), keys(leaderboard));
+
+        leaderboard.offer("a", 25);
+        assertEquals(List.of("b", "a", "c", "d"), keys(leaderboard));
+
+        // A changed entry is placed behind the entries which already had its value.
+        leaderboard.offer("b", 20);
+        assertEquals(List.of("a", "c", "d", "b"), keys(leaderboard));
+
+        assertTrue(leaderboard.remove("c"));
+        assertFalse(leaderboard.remove("c"));
+        assertEquals(List.of("a", "d", "b"), keys(leaderboard));
+        assertEquals(2, leaderboard.position("d"));
+        assertEquals(20L, leaderboard.valueAt(3));
+    }
+
+    @Test
+    public void keepsSnapshotsUnchanged() {
+        TestLeaderboard leaderboard = new TestLeaderboard(LeaderboardComparingType.LOWEST_TO_HIGHEST);
+        leaderboard.offerAll(Map.of("a", 3L, "b", 1L, "c", 2L));
+
+        LeaderboardSnapshot<String, Long> snapshot = leaderboard.snapshot();
+        assertEquals(snapshot, leaderboard.snapshot());
+
+        leaderboard.offer("a", 0);
+        leaderboard.remove("b");
+
+        assertEquals(List.of("b", "c", "a"), snapshot.entries().stream().map(LeaderboardEntry::key).toList());
+        assertEquals(2, snapshot.position("c"));
+        assertEquals(-1, snapshot.position("d"));
+        assertNull(snapshot.get(4));
+        assertEquals(List.of("a", "c"), leaderboard.snapshot().range(1, 5).stream().map(LeaderboardEntry::key).toList());
+    }
+
+    @Test
+    public void matchesASortedList() {
+        for (LeaderboardComparingType comparing : LeaderboardComparingType.values()) {
+            Random random = new Random(comparing.ordinal());
+            TestLeaderboard leaderboard = new TestLeaderboard(comparing);
+            Reference reference = new Reference(comparing);
+
+            List<List<LeaderboardChange<String, Long>>> received = Lists.newArrayList();
+            leaderboard.addListener((board, changes) -> received.add(changes));
+
+            for (int i = 0; i < 3000; i++) {
+                List<String> before = Lists.newArrayList(reference.keys);
+                Map<String, Long> values = Maps.newHashMap(reference.values);
+
+                switch (random.nextInt(4)) {
+                    case 0 -> {
+                        String key = "key" + random.nextInt(400);
+                        long value = random.nextInt(50);
+                        leaderboard.offer(key, value);
+                        reference.put(key, value);
+                    }
+                    case 1 -> {
+                        String key = "key" + random.nextInt(400);
+                        leaderboard.remove(key);
+                        reference.remove(key);
+                    }
+                    default -> {
+                        // Small batches are repositioned one by one, large ones are merged.
+                        Map<String, Long> batch = Maps.newLinkedHashMap();
+                        int size = (random.nextBoolean() ? 2 : 60);
+                        for (int j = 0; j < size; j++) {
+                            batch.put("key" + random.nextInt(400), (random.nextInt(8) == 0 ? null : (long) random.nextInt(50)));
+                        }
+
+                        leaderboard.offerAll(batch);
+                        batch.forEach((key, value) -> {
+                            if (value == null) reference.remove(key);
+                            else reference.put(key, value);
+                        });
+                    }
+                }
+
+                assertEquals(reference.keys, keys(leaderboard));
+                for (int position = 1; position <= reference.keys.size(); position++) {
+                    String key = reference.keys.get(position - 1);
+                    assertEquals(position, leaderboard.position(key));
+                    assertEquals(reference.values.get(key), leaderboard.valueAt(position));
+                }
+
+                List<LeaderboardChange<String, Long>> expected = diff(before, values, reference);
+                List<LeaderboardChange<String, Long>> actual = (received.isEmpty() ? List.of() : received.remove(0));
+                assertEquals(Sets.newHashSet(expected), Sets.newHashSet(actual));
+                assertTrue(received.isEmpty());
+            }
+        }
+    }
+
+    private static List<String> keys(@NotNull final TestLeaderboard leaderboard) {
+        return leaderboard.getEntries(null).stream().map(LeaderboardEntry::key).toList();
+    }
+
+    /**
+     * Same changes as a leaderboard reports between two snapshots.
+     */
+    private static List<LeaderboardChange<String, Long>> diff(@NotNull final List<String> before, @NotNull final Map<String, Long> values, @NotNull final Reference after) {
+        List<LeaderboardChange<String, Long>> changes = Lists.newArrayList();
+        for (int position = 1; position <= Math.min(DEPTH, after.keys.size()); position++) {
+            String key = after.keys.get(position - 1);
+            int previous = before.indexOf(key) + 1;
+            if (previous != position) changes.add(new LeaderboardChange<>(key, after.values.get(key), previous, position));
+        }
+
+        for (int previous = 1; previous <= Math.min(DEPTH, before.size()); previous++) {
+            String key = before.get(previous - 1);
+            int position = after.keys.indexOf(key) + 1;
+            if (position != 0 && position <= DEPTH) continue;
+
+            changes.add(new LeaderboardChange<>(key, (position == 0 ? values.get(key) : after.values.get(key)), previous, position));
+        }
+
+        return changes;
+    }
+
+    /**
+     * Inserts every changed entry behind the entries with an equal value.
+     */
+    private static final class Reference {
+
+        private final List<String> keys = Lists.newArrayList();
+        private final Map<String, Long> values = Maps.newHashMap();
+        private final LeaderboardComparingType comparing;
+
+        private Reference(@NotNull final LeaderboardComparingType comparing) {
+            this.comparing = comparing;
+        }
+
+        private void put(@NotNull final String key, final long value) {
+            Long previous = values.get(key);
+            if (previous != null && previous == value) return;
+
+            remove(key);
+
+            int index = 0;
+            while (index < keys.size() && comparing.<Long>comparator().compare(values.get(keys.get(index)), value) <= 0) index++;
+
+            keys.add(index, key);
+            values.put(key, value);
+        }
+
+        private void remove(@NotNull final String key) {
+            if (values.remove(key) != null) keys.remove(key);
+        }
+    }
+
+    private static final class TestLeaderboard extends LongLeaderboard<String> {
+
+        private TestLeaderboard(@NotNull final LeaderboardComparingType comparing) {
+            super("test", comparing);
+        }
+
+        @Override
+        public long getValue(@NotNull final String key) {
+            return 0;
+        }
+
+        @NotNull
+        @Override
+        public String parseValue(final long value) {
+            return String.valueOf(value);
+        }
+
+        @NotNull
+        @Override
+        public String parseKey(@NotNull final String key) {
+            return key;
+        }
+    }
+}
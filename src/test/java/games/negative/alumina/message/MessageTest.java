@@ -0,0 +1,120 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.message;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Compares compiled renders of a {@link Message} with the content parsed after replacing its placeholders.
+ */
+public class MessageTest {
+
+    @Test
+    public void plainValuesRenderLikeParsedContent() {
+        assertRendersLikeParsed("<red>Hello %player%, you have <bold>%coins%</bold> coins!", "%player%", "Steve", "%coins%", "42");
+    }
+
+    @Test
+    public void repeatedPlaceholdersRenderLikeParsedContent() {
+        assertRendersLikeParsed("%name% <gray>and</gray> %name%", "%name%", "Alex");
+    }
+
+    @Test
+    public void taggedValuesStyleTheFollowingText() {
+        assertRendersLikeParsed("Rank: %rank% of the server", "%rank%", "<gold>");
+        assertRendersLikeParsed("<gray>%rank% <white>%player%", "%rank%", "<red>Owner", "%player%", "Steve");
+    }
+
+    @Test
+    public void escapingValuesRenderLikeParsedContent() {
+        assertRendersLikeParsed("%value%<red>text", "%value%", "\\");
+    }
+
+    @Test
+    public void placeholdersInsideTagsRenderLikeParsedContent() {
+        assertRendersLikeParsed("<click:run_command:'/warp %warp%'>Warp to %warp%", "%warp%", "spawn");
+    }
+
+    @Test
+    public void unknownPlaceholdersAreKept() {
+        assertRendersLikeParsed("<green>Balance: %balance%", "%other%", "value");
+    }
+
+    @Test
+    public void componentPlaceholdersRenderLikeReplacedText() {
+        Message message = Message.of("<yellow>Welcome %player%!");
+        Component player = Component.text("Steve", NamedTextColor.AQUA);
+
+        Component expected = MiniMessage.miniMessage().deserialize(message.content())
+                .replaceText(builder -> builder.matchLiteral("%player%").replacement(player));
+
+        assertEquals(json(expected), json(message.asComponent(null, Map.entry("%player%", player))));
+    }
+
+    @Test
+    public void customTagsWriteThroughTheRegistry() {
+        Message.customTags().put("alumina_test", Tag.styling(NamedTextColor.GOLD));
+        try {
+            Component expected = Component.text("gold", NamedTextColor.GOLD);
+            assertEquals(json(expected), json(Message.of("<alumina_test>gold").asComponent(null)));
+        } finally {
+            Message.customTags().remove("alumina_test");
+        }
+
+        assertFalse(Message.customTags().containsKey("alumina_test"));
+    }
+
+    /**
+     * Renders the message compiled and compares it with the content parsed after replacing every placeholder.
+     */
+    private static void assertRendersLikeParsed(String content, String... placeholders) {
+        String replaced = content;
+        for (int i = 0; i < placeholders.length; i += 2) {
+            replaced = replaced.replace(placeholders[i], placeholders[i + 1]);
+        }
+
+        Component expected = MiniMessage.miniMessage().deserialize(replaced);
+        Component actual = Message.of(content).compile().asComponent(null, placeholders);
+
+        assertEquals(json(expected), json(actual), content);
+    }
+
+    private static String json(Component component) {
+        return GsonComponentSerializer.gson().serialize(component.compact());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2024 Negative Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+
+package games.negative.alumina.message;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PlaceholderReplacerTest {
+
+    @Test
+    public void replacesEveryKeyInOnePass() {
+        PlaceholderReplacer replacer = new PlaceholderReplacer("%player%", "%coins%");
+
+        assertEquals("Steve has 42 coins, Steve!", replacer.replace("%player% has %coins% coins, %player%!", "Steve", "42"));
+    }
+
+    @Test
+    public void doesNotReplaceInsideReplacements() {
+        PlaceholderReplacer replacer = new PlaceholderReplacer("%a%", "%b%");
+
+        assertEquals("%b% and x", replacer.replace("%a% and %b%", "%b%", "x"));
+    }
+
+    @Test
+    public void prefersTheLongestKeyAtTheSameIndex() {
+        PlaceholderReplacer replacer = new PlaceholderReplacer("%player%", "%player_name%");
+
+        assertEquals("Name: Steve, Id: 1", replacer.replace("Name: %player_name%, Id: %player%", "1", "Steve"));
+    }
+
+    @Test
+    public void prefersTheLeftmostOfOverlappingKeys() {
+        PlaceholderReplacer replacer = new PlaceholderReplacer("abc", "bcd");
+
+        assertEquals("Xd", replacer.replace("abcd", "X", "Y"));
+        assertEquals("abY", replacer.replace("abbcd", "X", "Y"));
+    }
+
+    @Test
+    public void matchesKeysContainedInOtherKeys() {
+        PlaceholderReplacer replacer = new PlaceholderReplacer("she", "he", "hers");
+
+        assertEquals("[SHE]rs", replacer.replace("shers", "[SHE]", "[HE]", "[HERS]"));
+        assertEquals("a[HERS]", replacer.replace("ahers", "[SHE]", "[HE]", "[HERS]"));
+        assertEquals("[HE]y", replacer.replace("hey", "[SHE]", "[HE]", "[HERS]"));
+    }
+
+    @Test
+    public void replacesKeysFollowingAPrefixOfALongerKey() {
+        PlaceholderReplacer replacer = new PlaceholderReplacer("abcdX", "ab", "cd");
+
+        assertEquals("12Y", replacer.replace("abcdY", "0", "1", "2"));
+        assertEquals("0", replacer.replace("abcdX", "0", "1", "2"));
+    }
+
+    @Test
+    public void keepsKeysWithoutReplacement() {
+        PlaceholderReplacer replacer = new PlaceholderReplacer("%a%", "%b%");
+
+        assertEquals("1 %b%", replacer.replace("%a% %b%", "1", null));
+    }
+
+    @Test
+    public void returnsTheInputWithoutMatches() {
+        PlaceholderReplacer replacer = new PlaceholderReplacer("%a%");
+        String input = "nothing to replace";
+
+        assertSame(input, replacer.replace(input, "x"));
+    }
+
+    @Test
+    public void rejectsInvalidKeysAndReplacements() {
+        assertThrows(IllegalArgumentException.class, () -> new PlaceholderReplacer("%a%", ""));
+        assertThrows(IllegalArgumentException.class, () -> new PlaceholderReplacer("%a%").replace("%a%", "x", "y"));
+    }
+}